@@ -0,0 +1,214 @@
+package cz.ondrejsmetak;
+
+import cz.ondrejsmetak.tool.Log;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds all the known cipher suites. Each cipher suite is identified by its
+ * IANA code, more names can share one code. Each code (and each name without
+ * known code) gets a small index, so sets of cipher suites can be stored as
+ * bitsets. Singleton pattern.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class CipherSuiteRegister {
+
+	/**
+	 * Instance of this class
+	 */
+	private static CipherSuiteRegister instance = null;
+
+	/**
+	 * Name of the resource with known cipher suites
+	 */
+	private static final String RESOURCE = "cipher-suites.csv";
+
+	/**
+	 * Index of cipher suite with the given name
+	 */
+	private final Map<String, Integer> indexes = new ConcurrentHashMap<>();
+
+	/**
+	 * Index of cipher suite with the given IANA code
+	 */
+	private final Map<Integer, Integer> codes = new HashMap<>();
+
+	/**
+	 * Name of cipher suite with the given index (the first one registered)
+	 */
+	private final List<String> names = new ArrayList<>();
+
+	protected CipherSuiteRegister() {
+		//no direct instantiation
+	}
+
+	/**
+	 * Returns a instance of this class
+	 *
+	 * @return instance of this class
+	 */
+	public static synchronized CipherSuiteRegister getInstance() {
+		if (instance == null) {
+			instance = new CipherSuiteRegister();
+			instance.load(ResourceManager.getResourceAsStream(RESOURCE));
+		}
+		return instance;
+	}
+
+	/**
+	 * Loads known cipher suites. Each line contains IANA code and name,
+	 * separated by semicolon. Lines starting with "#" are comments.
+	 *
+	 * @param source stream with known cipher suites
+	 */
+	private void load(InputStream source) {
+		if (source == null) {
+			Log.warningln("List of known cipher suites [" + RESOURCE + "] not found!");
+			return;
+		}
+
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] pieces = line.split(";");
+				if (line.startsWith("#") || pieces.length != 2) {
+					continue;
+				}
+
+				register(pieces[1].trim(), parseCode(pieces[0]));
+			}
+		} catch (IOException ex) {
+			Log.debugException(ex);
+		}
+	}
+
+	/**
+	 * Parses IANA code of cipher suite. Supported are forms "0xC030",
+	 * "0xC0,0x30" and "0x0300C030" (O-Saft notation of SSLv3/TLS cipher
+	 * suite).
+	 *
+	 * @param value text representation of code
+	 * @return IANA code or -1, if value doesn't contain IANA code
+	 */
+	public static int parseCode(String value) {
+		String hex = value.trim().replace("0x", "").replace(",", "");
+
+		try {
+			if (hex.length() == 4) {
+				return Integer.parseInt(hex, 16);
+			}
+
+			if (hex.length() == 8 && hex.startsWith("0300")) {
+				return Integer.parseInt(hex.substring(4), 16);
+			}
+		} catch (NumberFormatException ex) {
+			//not a hex number
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Registers cipher suite with the given name and IANA code. Unknown code
+	 * (-1) means, that cipher suite with this name gets its own index.
+	 *
+	 * @param name name of cipher suite
+	 * @param code IANA code or -1
+	 * @return index of cipher suite
+	 */
+	public synchronized int register(String name, int code) {
+		Integer index = indexes.get(name);
+		if (index != null) {
+			if (code != -1 && !codes.containsKey(code)) {
+				codes.put(code, index); //name was known, but its code wasn't
+			}
+			return index;
+		}
+
+		index = code == -1 ? null : codes.get(code);
+		if (index == null) {
+			index = names.size();
+			names.add(name);
+			if (code != -1) {
+				codes.put(code, index);
+			}
+		}
+
+		indexes.put(name, index);
+		return index;
+	}
+
+	/**
+	 * Returns index of cipher suite with the given name. Unknown name is
+	 * registered without IANA code.
+	 *
+	 * @param name name of cipher suite
+	 * @return index of cipher suite
+	 */
+	public int getIndex(String name) {
+		Integer index = indexes.get(name);
+		return index != null ? index : register(name, -1);
+	}
+
+	/**
+	 * Returns index of cipher suite with the given IANA code. Unknown code is
+	 * registered with its hex representation as a name.
+	 *
+	 * @param code IANA code of cipher suite
+	 * @return index of cipher suite
+	 */
+	public synchronized int getIndex(int code) {
+		Integer index = codes.get(code);
+		return index != null ? index : register(String.format("0x%04X", code), code);
+	}
+
+	/**
+	 * Returns IANA code of cipher suite with the given name
+	 *
+	 * @param name name of cipher suite
+	 * @return IANA code or -1, if code isn't known
+	 */
+	public synchronized int getCode(String name) {
+		Integer index = indexes.get(name);
+		if (index != null) {
+			for (Map.Entry<Integer, Integer> entry : codes.entrySet()) {
+				if (entry.getValue().equals(index)) {
+					return entry.getKey();
+				}
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns IANA codes of all the known cipher suites
+	 *
+	 * @return collection of IANA codes, in ascending order
+	 */
+	public synchronized List<Integer> getCodes() {
+		List<Integer> done = new ArrayList<>(codes.keySet());
+		Collections.sort(done);
+		return done;
+	}
+
+	/**
+	 * Returns name of cipher suite with the given index
+	 *
+	 * @param index index of cipher suite
+	 * @return name of cipher suite
+	 */
+	public synchronized String getName(int index) {
+		return names.get(index);
+	}
+}
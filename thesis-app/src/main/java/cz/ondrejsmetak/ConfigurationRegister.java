@@ -26,6 +26,45 @@ public class ConfigurationRegister {
 	 */
 	public static final String DEBUG = "debug";
 	public static final String O_SAFT_FOLDER_ABSOLUTE_PATH = "oSaftFolderAbsolutePath";
+	public static final String CONCURRENT_SCANS = "concurrentScans";
+	public static final String O_SAFT_EXECUTION_MODE = "oSaftExecutionMode";
+	public static final String O_SAFT_TIMEOUT = "oSaftTimeout";
+	public static final String O_SAFT_STALL_TIMEOUT = "oSaftStallTimeout";
+	public static final String CIPHER_SUITES_BACKEND = "cipherSuitesBackend";
+	public static final String NATIVE_TIMEOUT = "nativeTimeout";
+	public static final String NATIVE_MAX_IN_FLIGHT = "nativeMaxInFlight";
+	public static final String CIPHER_SUITES_ENUMERATION = "cipherSuitesEnumeration";
+	public static final String PROTOCOLS_BACKEND = "protocolsBackend";
+	public static final String CERTIFICATE_BACKEND = "certificateBackend";
+	public static final String REACHABILITY_TIMEOUT = "reachabilityTimeout";
+	public static final String CACHE_TTL_VULNERABILITIES = "cacheTtlVulnerabilities";
+	public static final String CACHE_TTL_CIPHER_SUITES = "cacheTtlCipherSuites";
+	public static final String CACHE_TTL_CERTIFICATE = "cacheTtlCertificate";
+	public static final String CACHE_TTL_PROTOCOLS = "cacheTtlProtocols";
+	public static final String O_SAFT_ARCHIVE = "oSaftArchive";
+	public static final String O_SAFT_REPLAY = "oSaftReplay";
+	public static final String O_SAFT_CIPHER_SUITES_PROCESSES = "oSaftCipherSuitesProcesses";
+	public static final String O_SAFT_BATCH_SIZE = "oSaftBatchSize";
+	public static final String O_SAFT_WORKERS = "oSaftWorkers";
+	public static final String O_SAFT_WORKER_MAX_JOBS = "oSaftWorkerMaxJobs";
+
+	/**
+	 * Supported values of directive "oSaftExecutionMode"
+	 */
+	public static final String EXECUTION_MODE_PARALLEL = "parallel";
+	public static final String EXECUTION_MODE_COMBINED = "combined";
+
+	/**
+	 * Supported values of directives, that choose backend of some tests
+	 */
+	public static final String BACKEND_O_SAFT = "oSaft";
+	public static final String BACKEND_NATIVE = "native";
+
+	/**
+	 * Supported values of directive "cipherSuitesEnumeration"
+	 */
+	public static final String ENUMERATION_ONE_BY_ONE = "oneByOne";
+	public static final String ENUMERATION_ELIMINATION = "elimination";
 	//public static final String UNKNOWN_TEST_RESULT_IS_ERROR = "unknownTestResultIsError";
 
 	protected ConfigurationRegister() {
@@ -41,6 +80,27 @@ public class ConfigurationRegister {
 		if (instance == null) {
 			instance = new ConfigurationRegister();
 			instance.setDirective(DEBUG, true); //by default, debug is enabled
+			instance.setDirective(CONCURRENT_SCANS, 1); //by default, targets are scanned one by one
+			instance.setDirective(O_SAFT_EXECUTION_MODE, EXECUTION_MODE_PARALLEL); //by default, one O-Saft process per command
+			instance.setDirective(O_SAFT_TIMEOUT, 0); //by default, O-Saft can run for unlimited time
+			instance.setDirective(O_SAFT_STALL_TIMEOUT, 0); //by default, O-Saft can be silent for unlimited time
+			instance.setDirective(CIPHER_SUITES_BACKEND, BACKEND_O_SAFT); //by default, cipher suites are tested by O-Saft
+			instance.setDirective(NATIVE_TIMEOUT, 5); //by default, native handshake can take five seconds
+			instance.setDirective(NATIVE_MAX_IN_FLIGHT, 256); //by default, well under usual limit of open files
+			instance.setDirective(CIPHER_SUITES_ENUMERATION, ENUMERATION_ELIMINATION); //by default, as few handshakes as possible
+			instance.setDirective(PROTOCOLS_BACKEND, BACKEND_O_SAFT); //by default, protocols are tested by O-Saft
+			instance.setDirective(CERTIFICATE_BACKEND, BACKEND_O_SAFT); //by default, certificate is tested by O-Saft
+			instance.setDirective(REACHABILITY_TIMEOUT, 0); //by default, reachability of targets isn't tested
+			instance.setDirective(CACHE_TTL_VULNERABILITIES, 0); //by default, results of O-Saft aren't cached
+			instance.setDirective(CACHE_TTL_CIPHER_SUITES, 0);
+			instance.setDirective(CACHE_TTL_CERTIFICATE, 0);
+			instance.setDirective(CACHE_TTL_PROTOCOLS, 0);
+			instance.setDirective(O_SAFT_ARCHIVE, false); //by default, output of O-Saft isn't archived
+			instance.setDirective(O_SAFT_REPLAY, false); //by default, O-Saft is really run
+			instance.setDirective(O_SAFT_CIPHER_SUITES_PROCESSES, 1); //by default, all protocols are tested by one +cipherall
+			instance.setDirective(O_SAFT_BATCH_SIZE, 1); //by default, each target has its own O-Saft processes
+			instance.setDirective(O_SAFT_WORKERS, 0); //by default, each O-Saft run starts its own Perl
+			instance.setDirective(O_SAFT_WORKER_MAX_JOBS, 100);
 		}
 		return instance;
 	}
@@ -122,7 +182,11 @@ public class ConfigurationRegister {
 	 * @return collection with the names of all the supported directives
 	 */
 	private List<String> getDirectives() {
-		String[] directives = {DEBUG, O_SAFT_FOLDER_ABSOLUTE_PATH};
+		String[] directives = {DEBUG, O_SAFT_FOLDER_ABSOLUTE_PATH, CONCURRENT_SCANS, O_SAFT_EXECUTION_MODE, O_SAFT_TIMEOUT, O_SAFT_STALL_TIMEOUT,
+			CIPHER_SUITES_BACKEND, NATIVE_TIMEOUT, NATIVE_MAX_IN_FLIGHT, CIPHER_SUITES_ENUMERATION,
+			PROTOCOLS_BACKEND, CERTIFICATE_BACKEND, REACHABILITY_TIMEOUT, CACHE_TTL_VULNERABILITIES, CACHE_TTL_CIPHER_SUITES,
+			CACHE_TTL_CERTIFICATE, CACHE_TTL_PROTOCOLS, O_SAFT_ARCHIVE, O_SAFT_REPLAY, O_SAFT_CIPHER_SUITES_PROCESSES,
+			O_SAFT_BATCH_SIZE, O_SAFT_WORKERS, O_SAFT_WORKER_MAX_JOBS};
 		return new ArrayList<>(Arrays.asList(directives));
 	}
 
@@ -151,4 +215,282 @@ public class ConfigurationRegister {
 	public Boolean isDebug() {
 		return (Boolean) getDirective(DEBUG);
 	}
+
+	public void setConcurrentScans(Integer value) {
+		setDirective(CONCURRENT_SCANS, value);
+	}
+
+	public Integer getConcurrentScans() {
+		return (Integer) getDirective(CONCURRENT_SCANS);
+	}
+
+	public void setOSaftExecutionMode(String value) {
+		setDirective(O_SAFT_EXECUTION_MODE, value);
+	}
+
+	/**
+	 * Should be all O-Saft commands of one target run in a single process?
+	 *
+	 * @return true, if all commands are run in a single process, false
+	 * otherwise
+	 */
+	public boolean isOSaftExecutionModeCombined() {
+		return EXECUTION_MODE_COMBINED.equals(getDirective(O_SAFT_EXECUTION_MODE));
+	}
+
+	public void setOSaftTimeout(Integer value) {
+		setDirective(O_SAFT_TIMEOUT, value);
+	}
+
+	/**
+	 * Returns maximum run time of one O-Saft process
+	 *
+	 * @return time in seconds, zero means no limit
+	 */
+	public Integer getOSaftTimeout() {
+		return (Integer) getDirective(O_SAFT_TIMEOUT);
+	}
+
+	public void setOSaftStallTimeout(Integer value) {
+		setDirective(O_SAFT_STALL_TIMEOUT, value);
+	}
+
+	/**
+	 * Returns maximum time, for which can be O-Saft process without any output
+	 *
+	 * @return time in seconds, zero means no limit
+	 */
+	public Integer getOSaftStallTimeout() {
+		return (Integer) getDirective(O_SAFT_STALL_TIMEOUT);
+	}
+
+	public void setCipherSuitesBackend(String value) {
+		setDirective(CIPHER_SUITES_BACKEND, value);
+	}
+
+	/**
+	 * Are cipher suites tested natively, without O-Saft?
+	 *
+	 * @return true, if cipher suites are tested natively, false otherwise
+	 */
+	public boolean isCipherSuitesBackendNative() {
+		return BACKEND_NATIVE.equals(getDirective(CIPHER_SUITES_BACKEND)) && !isOSaftReplay(); //native tests need network
+	}
+
+	public void setNativeTimeout(Integer value) {
+		setDirective(NATIVE_TIMEOUT, value);
+	}
+
+	/**
+	 * Returns maximum duration of one native handshake
+	 *
+	 * @return time in seconds
+	 */
+	public Integer getNativeTimeout() {
+		return (Integer) getDirective(NATIVE_TIMEOUT);
+	}
+
+	public void setNativeMaxInFlight(Integer value) {
+		setDirective(NATIVE_MAX_IN_FLIGHT, value);
+	}
+
+	/**
+	 * Returns maximum number of native handshakes in flight at once, across
+	 * all the targets. Each of them holds one open socket.
+	 *
+	 * @return number of handshakes
+	 */
+	public Integer getNativeMaxInFlight() {
+		return (Integer) getDirective(NATIVE_MAX_IN_FLIGHT);
+	}
+
+	public void setCipherSuitesEnumeration(String value) {
+		setDirective(CIPHER_SUITES_ENUMERATION, value);
+	}
+
+	/**
+	 * Are native cipher suites tested one by one? Otherwise, elimination is
+	 * used.
+	 *
+	 * @return true, if cipher suites are tested one by one, false otherwise
+	 */
+	public boolean isCipherSuitesEnumerationOneByOne() {
+		return ENUMERATION_ONE_BY_ONE.equals(getDirective(CIPHER_SUITES_ENUMERATION));
+	}
+
+	public void setProtocolsBackend(String value) {
+		setDirective(PROTOCOLS_BACKEND, value);
+	}
+
+	/**
+	 * Are protocols tested natively, without O-Saft?
+	 *
+	 * @return true, if protocols are tested natively, false otherwise
+	 */
+	public boolean isProtocolsBackendNative() {
+		return BACKEND_NATIVE.equals(getDirective(PROTOCOLS_BACKEND)) && !isOSaftReplay(); //native tests need network
+	}
+
+	public void setCertificateBackend(String value) {
+		setDirective(CERTIFICATE_BACKEND, value);
+	}
+
+	/**
+	 * Is certificate tested natively, without O-Saft?
+	 *
+	 * @return true, if certificate is tested natively, false otherwise
+	 */
+	public boolean isCertificateBackendNative() {
+		return BACKEND_NATIVE.equals(getDirective(CERTIFICATE_BACKEND)) && !isOSaftReplay(); //native tests need network
+	}
+
+	public void setReachabilityTimeout(Integer value) {
+		setDirective(REACHABILITY_TIMEOUT, value);
+	}
+
+	/**
+	 * Returns maximum time of TCP connection, that tests reachability of
+	 * targets before scan
+	 *
+	 * @return time in seconds, zero means, that reachability isn't tested
+	 */
+	public Integer getReachabilityTimeout() {
+		return (Integer) getDirective(REACHABILITY_TIMEOUT);
+	}
+
+	public void setCacheTtlVulnerabilities(Integer value) {
+		setDirective(CACHE_TTL_VULNERABILITIES, value);
+	}
+
+	/**
+	 * Returns how long are cached results of vulnerabilities valid
+	 *
+	 * @return time in seconds, zero means, that results aren't cached
+	 */
+	public Integer getCacheTtlVulnerabilities() {
+		return (Integer) getDirective(CACHE_TTL_VULNERABILITIES);
+	}
+
+	public void setCacheTtlCipherSuites(Integer value) {
+		setDirective(CACHE_TTL_CIPHER_SUITES, value);
+	}
+
+	/**
+	 * Returns how long are cached results of cipher suites valid
+	 *
+	 * @return time in seconds, zero means, that results aren't cached
+	 */
+	public Integer getCacheTtlCipherSuites() {
+		return (Integer) getDirective(CACHE_TTL_CIPHER_SUITES);
+	}
+
+	public void setCacheTtlCertificate(Integer value) {
+		setDirective(CACHE_TTL_CERTIFICATE, value);
+	}
+
+	/**
+	 * Returns how long are cached results of certificate valid
+	 *
+	 * @return time in seconds, zero means, that results aren't cached
+	 */
+	public Integer getCacheTtlCertificate() {
+		return (Integer) getDirective(CACHE_TTL_CERTIFICATE);
+	}
+
+	public void setCacheTtlProtocols(Integer value) {
+		setDirective(CACHE_TTL_PROTOCOLS, value);
+	}
+
+	/**
+	 * Returns how long are cached results of protocols valid
+	 *
+	 * @return time in seconds, zero means, that results aren't cached
+	 */
+	public Integer getCacheTtlProtocols() {
+		return (Integer) getDirective(CACHE_TTL_PROTOCOLS);
+	}
+
+	public void setOSaftArchive(Boolean value) {
+		setDirective(O_SAFT_ARCHIVE, value);
+	}
+
+	/**
+	 * Is raw output of O-Saft archived?
+	 *
+	 * @return true, if output is archived, false otherwise
+	 */
+	public Boolean isOSaftArchive() {
+		return (Boolean) getDirective(O_SAFT_ARCHIVE);
+	}
+
+	public void setOSaftReplay(Boolean value) {
+		setDirective(O_SAFT_REPLAY, value);
+	}
+
+	/**
+	 * Is archived output of O-Saft used instead of running O-Saft? In such
+	 * case, nothing is sent over network, so native tests aren't performed.
+	 *
+	 * @return true, if archived output is used, false otherwise
+	 */
+	public Boolean isOSaftReplay() {
+		return (Boolean) getDirective(O_SAFT_REPLAY);
+	}
+
+	public void setOSaftCipherSuitesProcesses(Integer value) {
+		setDirective(O_SAFT_CIPHER_SUITES_PROCESSES, value);
+	}
+
+	/**
+	 * Returns maximum number of O-Saft processes, that test cipher suites of
+	 * one target at the same time. Each process tests only one protocol.
+	 *
+	 * @return number of processes, one means, that all protocols are tested
+	 * by a single process
+	 */
+	public Integer getOSaftCipherSuitesProcesses() {
+		return (Integer) getDirective(O_SAFT_CIPHER_SUITES_PROCESSES);
+	}
+
+	public void setOSaftBatchSize(Integer value) {
+		setDirective(O_SAFT_BATCH_SIZE, value);
+	}
+
+	/**
+	 * Returns maximum number of targets with the same plan of O-Saft run, that
+	 * are scanned by a single O-Saft process
+	 *
+	 * @return number of targets, one means, that targets aren't batched
+	 */
+	public Integer getOSaftBatchSize() {
+		return (Integer) getDirective(O_SAFT_BATCH_SIZE);
+	}
+
+	public void setOSaftWorkers(Integer value) {
+		setDirective(O_SAFT_WORKERS, value);
+	}
+
+	/**
+	 * Returns number of long-lived O-Saft workers, that run O-Saft without
+	 * starting Perl for each run
+	 *
+	 * @return number of workers, zero means, that workers aren't used
+	 */
+	public Integer getOSaftWorkers() {
+		return (Integer) getDirective(O_SAFT_WORKERS);
+	}
+
+	public void setOSaftWorkerMaxJobs(Integer value) {
+		setDirective(O_SAFT_WORKER_MAX_JOBS, value);
+	}
+
+	/**
+	 * Returns number of O-Saft runs, after which is worker replaced by a new
+	 * one
+	 *
+	 * @return number of runs
+	 */
+	public Integer getOSaftWorkerMaxJobs() {
+		return (Integer) getDirective(O_SAFT_WORKER_MAX_JOBS);
+	}
 }
@@ -0,0 +1,197 @@
+package cz.ondrejsmetak;
+
+import cz.ondrejsmetak.entity.Target;
+import cz.ondrejsmetak.tool.Log;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests, which targets accept TCP connection at all. All the targets are
+ * connected at once with non-blocking channels, so the whole sweep takes at
+ * most one timeout. Host names are resolved concurrently before, because
+ * lookup blocks. Unreachable targets don't have to be scanned.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class ReachabilityTest {
+
+	/**
+	 * Maximum number of connections in flight, so file descriptors aren't
+	 * exhausted
+	 */
+	private static final int WINDOW = 512;
+
+	/**
+	 * Maximum number of host names resolved at the same time
+	 */
+	private static final int RESOLVERS = 32;
+
+	/**
+	 * Targets, that will be tested
+	 */
+	private final List<Target> targets;
+
+	/**
+	 * Targets, that didn't accept connection
+	 */
+	private final Set<Target> unreachable = Collections.newSetFromMap(new IdentityHashMap<>());
+
+	public ReachabilityTest(List<Target> targets) {
+		this.targets = targets;
+	}
+
+	/**
+	 * Connects to all the targets
+	 *
+	 * @param timeout maximum duration of one connection in milliseconds
+	 */
+	public void runScan(int timeout) {
+		Log.infoln("Testing reachability of " + targets.size() + " target(s)...");
+		unreachable.clear();
+
+		ExecutorService resolvers = Executors.newFixedThreadPool(Math.max(1, Math.min(RESOLVERS, targets.size())), runnable -> {
+			Thread thread = new Thread(runnable, "reachability-resolver");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		try (Selector selector = Selector.open()) {
+			for (int start = 0; start < targets.size(); start += WINDOW) {
+				List<Target> batch = targets.subList(start, Math.min(start + WINDOW, targets.size()));
+				runScan(selector, batch, resolve(resolvers, batch), timeout);
+			}
+		} catch (IOException ex) {
+			Log.debugException(ex);
+			unreachable.clear(); //can't tell, so all the targets will be scanned
+		} finally {
+			resolvers.shutdownNow();
+		}
+
+		Log.infoln("Test finished. " + unreachable.size() + " target(s) unreachable");
+	}
+
+	/**
+	 * Resolves host names of the given targets concurrently
+	 *
+	 * @param resolvers threads, that resolve host names
+	 * @param batch targets, whose host names will be resolved
+	 * @return address of each target, in the same order as targets
+	 */
+	private List<InetSocketAddress> resolve(ExecutorService resolvers, List<Target> batch) {
+		List<Future<InetSocketAddress>> pending = new ArrayList<>();
+		for (Target target : batch) {
+			pending.add(resolvers.submit(() -> new InetSocketAddress(target.getHost(), target.getPort())));
+		}
+
+		List<InetSocketAddress> addresses = new ArrayList<>();
+		for (int i = 0; i < batch.size(); i++) {
+			try {
+				addresses.add(pending.get(i).get());
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt(); //let the caller know
+				addresses.add(InetSocketAddress.createUnresolved(batch.get(i).getHost(), batch.get(i).getPort()));
+			} catch (ExecutionException ex) {
+				Log.debugException(ex);
+				addresses.add(InetSocketAddress.createUnresolved(batch.get(i).getHost(), batch.get(i).getPort()));
+			}
+		}
+
+		return addresses;
+	}
+
+	/**
+	 * Connects to the given targets at once and waits, until all of them are
+	 * connected or timeout passes
+	 *
+	 * @param selector selector for channels
+	 * @param batch targets, that will be connected
+	 * @param addresses resolved addresses of targets
+	 * @param timeout maximum duration of connection in milliseconds
+	 * @throws IOException in case of selector error
+	 */
+	private void runScan(Selector selector, List<Target> batch, List<InetSocketAddress> addresses, int timeout) throws IOException {
+		int pending = 0;
+
+		for (int i = 0; i < batch.size(); i++) {
+			Target target = batch.get(i);
+			unreachable.add(target); //until connection is made
+			InetSocketAddress address = addresses.get(i);
+			if (address.isUnresolved()) {
+				continue;
+			}
+
+			SocketChannel channel = SocketChannel.open();
+			try {
+				channel.configureBlocking(false);
+				if (channel.connect(address)) {
+					unreachable.remove(target);
+					channel.close();
+				} else {
+					channel.register(selector, SelectionKey.OP_CONNECT, target);
+					pending++;
+				}
+			} catch (IOException ex) {
+				channel.close();
+			}
+		}
+
+		long deadline = System.nanoTime() + timeout * 1_000_000L;
+		while (pending > 0) {
+			long remaining = (deadline - System.nanoTime()) / 1_000_000L;
+			if (remaining <= 0) {
+				break;
+			}
+
+			selector.select(remaining);
+			Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+			while (iterator.hasNext()) {
+				SelectionKey key = iterator.next();
+				iterator.remove();
+
+				SocketChannel channel = (SocketChannel) key.channel();
+				try {
+					if (!channel.finishConnect()) {
+						continue; //not connected yet
+					}
+					unreachable.remove((Target) key.attachment());
+				} catch (IOException ex) {
+					//connection refused or host unreachable
+				}
+				channel.close();
+				pending--;
+			}
+		}
+
+		/**
+		 * Channels, that didn't connect in time
+		 */
+		for (SelectionKey key : selector.keys()) {
+			key.channel().close();
+		}
+		selector.selectNow();
+	}
+
+	/**
+	 * Is the given target reachable?
+	 *
+	 * @param target tested target
+	 * @return true, if target accepted connection (or wasn't tested), false
+	 * otherwise
+	 */
+	public boolean isReachable(Target target) {
+		return !unreachable.contains(target);
+	}
+}
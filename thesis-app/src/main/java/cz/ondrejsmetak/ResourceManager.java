@@ -36,6 +36,15 @@ public class ResourceManager {
 		return getResourceAsStream("template.html");
 	}
 
+	/**
+	 * Return stream of Perl script, that runs O-Saft jobs in long-lived worker
+	 *
+	 * @return stream of script of O-Saft worker
+	 */
+	public static InputStream getOSaftWorkerScript() {
+		return getResourceAsStream("o-saft-worker.pl");
+	}
+
 	/**
 	 * Finds a resource in "resource" folder and returns it
 	 *
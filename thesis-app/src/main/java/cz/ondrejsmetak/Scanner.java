@@ -1,6 +1,7 @@
 package cz.ondrejsmetak;
 
 import cz.ondrejsmetak.entity.CipherSuite;
+import cz.ondrejsmetak.entity.CipherSuiteSet;
 import cz.ondrejsmetak.entity.ClientCertificate;
 import cz.ondrejsmetak.entity.Directive;
 import cz.ondrejsmetak.entity.Mode;
@@ -8,8 +9,10 @@ import cz.ondrejsmetak.entity.Profile;
 import cz.ondrejsmetak.entity.Protocol;
 import cz.ondrejsmetak.entity.ReportMessage;
 import cz.ondrejsmetak.entity.Result;
+import cz.ondrejsmetak.facade.CertificateChecks;
+import cz.ondrejsmetak.facade.NativeTlsFacade;
 import cz.ondrejsmetak.facade.OSaftFacade;
-import cz.ondrejsmetak.facade.OSaftParser;
+import cz.ondrejsmetak.facade.OSaftSection;
 import cz.ondrejsmetak.entity.Target;
 import cz.ondrejsmetak.tool.Helper;
 import java.util.ArrayList;
@@ -26,6 +29,11 @@ public class Scanner {
 	 */
 	private final OSaftFacade oSaft;
 
+	/**
+	 * Native tests, without O-Saft tool
+	 */
+	private final NativeTlsFacade nativeTls;
+
 	/**
 	 * Test regarding custom certificate authority
 	 */
@@ -52,8 +60,20 @@ public class Scanner {
 	 * @param target target, that will be scanned
 	 */
 	public Scanner(Target target) {
+		this(target, new OSaftFacade(target));
+	}
+
+	/**
+	 * Creates a new intance of scanner for the given target, that is scanned
+	 * by the given O-Saft facade (for example, facade of batched target)
+	 *
+	 * @param target target, that will be scanned
+	 * @param oSaft facade over O-Saft tool
+	 */
+	public Scanner(Target target, OSaftFacade oSaft) {
 		this.target = target;
-		oSaft = new OSaftFacade(target);
+		this.oSaft = oSaft;
+		nativeTls = new NativeTlsFacade(target, oSaft.getPlanner().getTargetedCipherSuites()); //the same cipher suites as O-Saft
 		customCa = new CustomCertificateAuthorityTest(target);
 	}
 
@@ -62,12 +82,30 @@ public class Scanner {
 	 */
 	public void runScan() {
 		oSaft.runScan();
-		if (!target.getProfile().getCustomCertificateAuthority().getMode().isCanBe()) {
-			customCa.runScan();
+		if (target.getProfile().isTestCipherSuites() && ConfigurationRegister.getInstance().isCipherSuitesBackendNative()) {
+			nativeTls.runScanCipherSuites();
+		}
+		if (target.getProfile().isTestProtocols() && ConfigurationRegister.getInstance().isProtocolsBackendNative()) {
+			nativeTls.runScanProtocols();
+		}
+		if (target.getProfile().isTestCertificate() && ConfigurationRegister.getInstance().isCertificateBackendNative()) {
+			nativeTls.runScanCertificate();
+		}
+		if (!target.getProfile().getCustomCertificateAuthority().getMode().isCanBe() && !ConfigurationRegister.getInstance().isOSaftReplay()) {
+			customCa.runScan(); //needs network, so it's skipped when O-Saft output is replayed
 		}
 		doReportMessages();
 	}
 
+	/**
+	 * Skips all the scans, because target isn't reachable at all
+	 */
+	public void skipScan() {
+		vulnerableMessages = new ArrayList<>();
+		safeMessages = new ArrayList<>();
+		doAddTargetNotRunning();
+	}
+
 	/**
 	 * Return a collection of the report messages regarding cipher suites
 	 *
@@ -75,22 +113,67 @@ public class Scanner {
 	 */
 	private List<ReportMessage> getCipherSuites() {
 		List<ReportMessage> vulns = new ArrayList<>();
-		boolean unableToTestError = oSaft.getParser().getSupportedCipherSuites().isEmpty();
-		String prefix = unableToTestError ? "[Unable to test] " : "";
+		CipherSuiteSet supported = getSupportedCipherSuites();
+		//supported cipher suites can be missing, when O-Saft didn't produce them or some native probes failed
+		boolean incomplete = ConfigurationRegister.getInstance().isCipherSuitesBackendNative() ? !nativeTls.isCipherSuitesComplete()
+				: oSaft.isTimedOut() || !oSaft.isTested(OSaftSection.CIPHER_SUITES);
+		//target always supports some cipher suite, but maybe none of the targeted ones
+		incomplete |= supported.isEmpty() && oSaft.getPlanner().getTargetedCipherSuites() == null;
+		String prefix = incomplete ? "[Unable to test] " : "";
 		
 		if (target.getProfile().isTestCipherSuites()) {
 			for (CipherSuite cipherSuite : target.getProfile().getCipherSuites()) {
-				if (cipherSuite.getMode().isMustBe() && !oSaft.getParser().getSupportedCipherSuites().contains(cipherSuite)) {
+				if (cipherSuite.getMode().isMustBe() && !supported.contains(cipherSuite)) {
 					vulns.add(new ReportMessage(prefix + "Cipher suite " + cipherSuite + " MUST BE supported!", ReportMessage.Category.CIPHER, cipherSuite.getMode()));
-				} else if (cipherSuite.getMode().isMustNotBe() && oSaft.getParser().getSupportedCipherSuites().contains(cipherSuite)) {
+				} else if (cipherSuite.getMode().isMustNotBe() && supported.contains(cipherSuite)) {
 					vulns.add(new ReportMessage(prefix + "Cipher suite " + cipherSuite + " MUST NOT BE supported!", ReportMessage.Category.CIPHER, cipherSuite.getMode()));
+				} else if (cipherSuite.getMode().isMustNotBe() && incomplete && target.getProfile().isUnknownTestResultIsError()) {
+					//cipher suite, that wasn't found, may be supported anyway
+					vulns.add(new ReportMessage("[Unable to test] Cipher suite " + cipherSuite + " MUST NOT BE supported!", ReportMessage.Category.CIPHER, cipherSuite.getMode()));
 				}
 			}
+
+			Helper.addIfNotNull(vulns, getServerCipherOrder());
 		}
 
 		return vulns;
 	}
 
+	/**
+	 * Returns report message regarding order of cipher suites, which is
+	 * detected only natively
+	 *
+	 * @return report message or null, if rule is satisfied
+	 */
+	private ReportMessage getServerCipherOrder() {
+		Mode mode = target.getProfile().getModeServerCipherOrder();
+		Result enforced = nativeTls.getServerCipherOrderEnforced();
+
+		if (mode.isMustBe()) {
+			return doPrintVulnerability("Server doesn't enforce its order of cipher suites.", enforced, ReportMessage.Category.CIPHER, mode);
+		}
+
+		if (mode.isMustNotBe()) {
+			Result inverted = enforced.isSafe() ? Result.getVulnerable() : enforced.isVulnerable() ? Result.getSafe() : enforced;
+			return doPrintVulnerability("Server enforces its order of cipher suites.", inverted, ReportMessage.Category.CIPHER, mode);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Returns cipher suites supported by target, found by O-Saft or natively
+	 *
+	 * @return set of cipher suites
+	 */
+	private CipherSuiteSet getSupportedCipherSuites() {
+		if (ConfigurationRegister.getInstance().isCipherSuitesBackendNative()) {
+			return nativeTls.getSupportedCipherSuites();
+		}
+
+		return oSaft.getParser().getSupportedCipherSuites();
+	}
+
 	/**
 	 * Return a collection of the report messages regarding vulnerabilities
 	 *
@@ -118,6 +201,19 @@ public class Scanner {
 		return vulns;
 	}
 
+	/**
+	 * Returns results of certificate checks, found by O-Saft or natively
+	 *
+	 * @return results of certificate checks
+	 */
+	private CertificateChecks getCertificate() {
+		if (ConfigurationRegister.getInstance().isCertificateBackendNative()) {
+			return nativeTls.getCertificateChecks();
+		}
+
+		return oSaft.getParser();
+	}
+
 	/**
 	 * Return a collection of the report messages regarding tests of the
 	 * certificate
@@ -128,25 +224,26 @@ public class Scanner {
 		List<ReportMessage> vulns = new ArrayList<>();
 		Mode mode = this.target.getProfile().getModeCertificate();
 
-		Helper.addIfNotNull(vulns, doPrintVulnerability("Mismatch between hostname and certificate subject.", oSaft.getParser().getCertificateHostnameMatch(), ReportMessage.Category.CERTIFICATE, mode));
-		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate expired.", oSaft.getParser().getCertificateNotExpired(), ReportMessage.Category.CERTIFICATE, mode));
-		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate isn't valid.", oSaft.getParser().getCertificateIsValid(), ReportMessage.Category.CERTIFICATE, mode));
-		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate fingerprint is MD5.", oSaft.getParser().getCertificateFingerprintNotMd5(), ReportMessage.Category.CERTIFICATE, mode));
-		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate Private Key Signature isn't SHA2.", oSaft.getParser().getCertificatePrivateKeySha2(), ReportMessage.Category.CERTIFICATE, mode));
-		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate is self-signed.", oSaft.getParser().getCertificateNotSelfSigned(), ReportMessage.Category.CERTIFICATE, mode));
+		Helper.addIfNotNull(vulns, doPrintVulnerability("Mismatch between hostname and certificate subject.", getCertificate().getCertificateHostnameMatch(), ReportMessage.Category.CERTIFICATE, mode));
+		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate expired.", getCertificate().getCertificateNotExpired(), ReportMessage.Category.CERTIFICATE, mode));
+		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate isn't valid.", getCertificate().getCertificateIsValid(), ReportMessage.Category.CERTIFICATE, mode));
+		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate fingerprint is MD5.", getCertificate().getCertificateFingerprintNotMd5(), ReportMessage.Category.CERTIFICATE, mode));
+		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate Private Key Signature isn't SHA2.", getCertificate().getCertificatePrivateKeySha2(), ReportMessage.Category.CERTIFICATE, mode));
+		Helper.addIfNotNull(vulns, doPrintVulnerability("Certificate is self-signed.", getCertificate().getCertificateNotSelfSigned(), ReportMessage.Category.CERTIFICATE, mode));
 
 		/**
 		 * How about custom certificate authority?
 		 */
 		ClientCertificate ca = this.target.getProfile().getCustomCertificateAuthority();
 		Mode caMode = ca.getMode();
+		boolean caTested = !ConfigurationRegister.getInstance().isOSaftReplay(); //needs network, so it isn't tested in replay
 
-		if (caMode.isMustBe() && !customCa.isConnectionSuccessful()) {
+		if (caTested && caMode.isMustBe() && !customCa.isConnectionSuccessful()) {
 			String message = String.format("Target isn't accepting connection when using custom certificate authority [%s].", ca.getName());
 			vulns.add(doPrintVulnerability(message, Result.getVulnerable(), ReportMessage.Category.CERTIFICATE, caMode));
 		}
 
-		if (caMode.isMustNotBe() && customCa.isConnectionSuccessful()) {
+		if (caTested && caMode.isMustNotBe() && customCa.isConnectionSuccessful()) {
 			String message = String.format("Target is accepting connection when using custom certificate authority [%s].", ca.getName());
 			vulns.add(doPrintVulnerability(message, Result.getVulnerable(), ReportMessage.Category.CERTIFICATE, caMode));
 		}
@@ -174,15 +271,15 @@ public class Scanner {
 		rsaDirective = target.getProfile().getCertificateDirective(Profile.RSA_MINIMUM_PUBLIC_KEY_SIZE);
 		ecdsaDirective = target.getProfile().getCertificateDirective(Profile.ECDSA_MINIMUM_PUBLIC_KEY_SIZE);
 
-		rsaVulnerable = oSaft.getParser().getCertificatePublicKeyAlgorithm().equals(OSaftParser.Algorithm.RSA)
+		rsaVulnerable = getCertificate().getCertificatePublicKeyAlgorithm().equals(CertificateChecks.Algorithm.RSA)
 				&& rsaDirective.getMode().isMustBe()
-				&& rsaDirective.getValueInt() > oSaft.getParser().getCertificatePublicKeySize();
-		ecdsaVulnerable = oSaft.getParser().getCertificatePublicKeyAlgorithm().equals(OSaftParser.Algorithm.ECDSA)
+				&& rsaDirective.getValueInt() > getCertificate().getCertificatePublicKeySize();
+		ecdsaVulnerable = getCertificate().getCertificatePublicKeyAlgorithm().equals(CertificateChecks.Algorithm.ECDSA)
 				&& ecdsaDirective.getMode().isMustBe()
-				&& ecdsaDirective.getValueInt() > oSaft.getParser().getCertificateSignatureKeySize();
+				&& ecdsaDirective.getValueInt() > getCertificate().getCertificateSignatureKeySize();
 
 		if (rsaVulnerable || ecdsaVulnerable) {
-			String note = String.format("actual size [%s] is lesser then expected minimum size [%s]", oSaft.getParser().getCertificatePublicKeySize(), rsaVulnerable ? rsaDirective.getValueInt() : ecdsaDirective.getValueInt());
+			String note = String.format("actual size [%s] is lesser then expected minimum size [%s]", getCertificate().getCertificatePublicKeySize(), rsaVulnerable ? rsaDirective.getValueInt() : ecdsaDirective.getValueInt());
 			Mode mode = rsaVulnerable ? rsaDirective.getMode() : ecdsaDirective.getMode();
 			vulns.add(doPrintVulnerability("Wrong size of certificate's public key", Result.getVulnerable(note), ReportMessage.Category.CERTIFICATE, mode));
 		}
@@ -193,15 +290,15 @@ public class Scanner {
 		rsaDirective = target.getProfile().getCertificateDirective(Profile.RSA_MINIMUM_SIGNATURE_KEY_SIZE);
 		ecdsaDirective = target.getProfile().getCertificateDirective(Profile.ECDSA_MINIMUM_SIGNATURE_SIZE);
 
-		rsaVulnerable = oSaft.getParser().getCertificateSignatureAlgorithm().equals(OSaftParser.Algorithm.RSA)
+		rsaVulnerable = getCertificate().getCertificateSignatureAlgorithm().equals(CertificateChecks.Algorithm.RSA)
 				&& rsaDirective.getMode().isMustBe()
-				&& rsaDirective.getValueInt() > oSaft.getParser().getCertificatePublicKeySize();
-		ecdsaVulnerable = oSaft.getParser().getCertificateSignatureAlgorithm().equals(OSaftParser.Algorithm.ECDSA)
+				&& rsaDirective.getValueInt() > getCertificate().getCertificatePublicKeySize();
+		ecdsaVulnerable = getCertificate().getCertificateSignatureAlgorithm().equals(CertificateChecks.Algorithm.ECDSA)
 				&& ecdsaDirective.getMode().isMustBe()
-				&& ecdsaDirective.getValueInt() > oSaft.getParser().getCertificateSignatureKeySize();
+				&& ecdsaDirective.getValueInt() > getCertificate().getCertificateSignatureKeySize();
 
 		if (rsaVulnerable || ecdsaVulnerable) {
-			String note = String.format("actual size [%s] is lesser then expected minimum size [%s]", oSaft.getParser().getCertificateSignatureKeySize(), rsaVulnerable ? rsaDirective.getValueInt() : ecdsaDirective.getValueInt());
+			String note = String.format("actual size [%s] is lesser then expected minimum size [%s]", getCertificate().getCertificateSignatureKeySize(), rsaVulnerable ? rsaDirective.getValueInt() : ecdsaDirective.getValueInt());
 			Mode mode = rsaVulnerable ? rsaDirective.getMode() : ecdsaDirective.getMode();
 			vulns.add(doPrintVulnerability("Wrong size of certificate's signature key", Result.getVulnerable(note), ReportMessage.Category.CERTIFICATE, mode));
 		}
@@ -220,6 +317,10 @@ public class Scanner {
 	private ReportMessage doPrintVulnerability(String vulnerableMessage, Result result, ReportMessage.Category category, Mode mode) {
 		ReportMessage vulnerable = null;
 
+		if (result.isUnknown() && !result.hasNote() && oSaft.isTimedOut()) {
+			result = Result.getUnknown("O-Saft timed out");
+		}
+
 		StringBuilder out = new StringBuilder();
 		out.append(vulnerableMessage);
 		if (result.hasNote()) {
@@ -247,23 +348,25 @@ public class Scanner {
 		for (Protocol protocol : protocols) {
 			switch (protocol.getType()) {
 				case SSLv2:
-					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for SSLv2 protocol.", oSaft.getParser().getProtocolSslv2(), ReportMessage.Category.PROTOCOL, protocol.getMode()));
+					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for SSLv2 protocol.", getProtocol(protocol.getType()), ReportMessage.Category.PROTOCOL, protocol.getMode()));
 					break;
 				case SSLv3:
-					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for SSLv3 protocol.", oSaft.getParser().getProtocolSslv3(), ReportMessage.Category.PROTOCOL, protocol.getMode()));
+					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for SSLv3 protocol.", getProtocol(protocol.getType()), ReportMessage.Category.PROTOCOL, protocol.getMode()));
 					break;
 				case TLSv10:
-					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for TLSv1.0 protocol.", oSaft.getParser().getProtocolTlsv10(), ReportMessage.Category.PROTOCOL, protocol.getMode()));
+					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for TLSv1.0 protocol.", getProtocol(protocol.getType()), ReportMessage.Category.PROTOCOL, protocol.getMode()));
 					break;
 				case TLSv11:
-					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for TLSv1.1 protocol.", oSaft.getParser().getProtocolTlsv11(), ReportMessage.Category.PROTOCOL, protocol.getMode()));
+					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for TLSv1.1 protocol.", getProtocol(protocol.getType()), ReportMessage.Category.PROTOCOL, protocol.getMode()));
 					break;
 				case TLSv12:
-					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for TLSv1.2 protocol.", oSaft.getParser().getProtocolTlsv12(), ReportMessage.Category.PROTOCOL, protocol.getMode()));
+					Helper.addIfNotNull(vulns, doPrintVulnerability("Support for TLSv1.2 protocol.", getProtocol(protocol.getType()), ReportMessage.Category.PROTOCOL, protocol.getMode()));
 					break;
 				case TLSv13:
-					//TLS 1.3 is draft
-					//Helper.addIfNotNull(vulns, doPrintVulnerability("Support for TLSv1.3 protocol.", oSaft.getParser().getProtocolTlsv13(), ReportMessage.Category.PROTOCOL, protocol.getMode()));
+					//TLS 1.3 is draft in O-Saft, so it is tested only natively
+					if (ConfigurationRegister.getInstance().isProtocolsBackendNative()) {
+						Helper.addIfNotNull(vulns, doPrintVulnerability("Support for TLSv1.3 protocol.", getProtocol(protocol.getType()), ReportMessage.Category.PROTOCOL, protocol.getMode()));
+					}
 					break;
 				default:
 					break;
@@ -274,6 +377,33 @@ public class Scanner {
 		return vulns;
 	}
 
+	/**
+	 * Returns result of the given protocol, found by O-Saft or natively
+	 *
+	 * @param type type of protocol
+	 * @return result of protocol
+	 */
+	private Result getProtocol(Protocol.Type type) {
+		if (ConfigurationRegister.getInstance().isProtocolsBackendNative()) {
+			return nativeTls.getProtocol(type);
+		}
+
+		switch (type) {
+			case SSLv2:
+				return oSaft.getParser().getProtocolSslv2();
+			case SSLv3:
+				return oSaft.getParser().getProtocolSslv3();
+			case TLSv10:
+				return oSaft.getParser().getProtocolTlsv10();
+			case TLSv11:
+				return oSaft.getParser().getProtocolTlsv11();
+			case TLSv12:
+				return oSaft.getParser().getProtocolTlsv12();
+			default:
+				return oSaft.getParser().getProtocolTlsv13();
+		}
+	}
+
 	/**
 	 * Creates a safe messages for the categories with zero found
 	 * vulnerabilities
@@ -302,7 +432,7 @@ public class Scanner {
 		vulnerableMessages = new ArrayList<>();
 		safeMessages = new ArrayList<>();
 
-		if (!oSaft.getParser().isSuccesfulConnection()) {
+		if (!oSaft.getParser().isSuccesfulConnection() || !nativeTls.isSuccesfulConnection()) {
 			doAddTargetNotRunning();
 			return; //stop here and return just single vulnerable message about unsuccessful connection.
 		}
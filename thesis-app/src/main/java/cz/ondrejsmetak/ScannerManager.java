@@ -1,16 +1,24 @@
 package cz.ondrejsmetak;
 
 import cz.ondrejsmetak.entity.Report;
-import cz.ondrejsmetak.entity.ReportMessage;
 import cz.ondrejsmetak.entity.Target;
 import cz.ondrejsmetak.other.XmlParserException;
 import cz.ondrejsmetak.parser.ConfigurationParser;
 import cz.ondrejsmetak.export.HtmlExport;
+import cz.ondrejsmetak.facade.OSaftBatch;
+import cz.ondrejsmetak.facade.OSaftFacade;
+import cz.ondrejsmetak.facade.OSaftWorkerPool;
 import cz.ondrejsmetak.tool.Log;
 import cz.ondrejsmetak.parser.TargetParser;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Parses configuration files and runs required scans
@@ -29,6 +37,21 @@ public class ScannerManager {
 	 */
 	TargetParser targetParser = new TargetParser();
 
+	/**
+	 * Worker pool, that runs scans of the targets
+	 */
+	private ExecutorService pool;
+
+	/**
+	 * Test of targets' reachability, null if it isn't performed
+	 */
+	private ReachabilityTest reachability;
+
+	/**
+	 * O-Saft facades of targets, that are scanned in batches
+	 */
+	private Map<Target, OSaftFacade> batched = Collections.emptyMap();
+
 	/**
 	 * Checks, if configuration files are present. If not, default one are
 	 * created
@@ -84,34 +107,100 @@ public class ScannerManager {
 				Log.infoln("Targets found, performing scans...");
 			}
 
-			List<Report> reports = new ArrayList<>();
-			int vulns = 0;
+			int reachabilityTimeout = ConfigurationRegister.getInstance().getReachabilityTimeout();
+			if (reachabilityTimeout > 0 && !ConfigurationRegister.getInstance().isOSaftReplay()) {
+				reachability = new ReachabilityTest(targets);
+				reachability.runScan(reachabilityTimeout * 1000);
+			}
 
-			for (Target target : targets) {
-				Log.infoln("***");
-				Log.infoln("Running scan of " + target.getDestination());
-				Scanner scanner = new Scanner(target);
-				scanner.runScan();
+			int batchSize = ConfigurationRegister.getInstance().getOSaftBatchSize();
+			if (batchSize > 1 && !ConfigurationRegister.getInstance().isOSaftReplay()) {
+				List<Target> reachable = new ArrayList<>();
+				for (Target target : targets) {
+					if (reachability == null || reachability.isReachable(target)) {
+						reachable.add(target);
+					}
+				}
+				batched = OSaftBatch.create(reachable, batchSize);
+				Log.infoln(batched.size() + " target(s) will be scanned by O-Saft in batches of at most " + batchSize);
+			}
 
-				List<ReportMessage> vulnerableMessages = scanner.getVulnerableMessages();
-				vulns += vulnerableMessages.size();
+			int vulns = 0;
+			List<Future<Report>> scans = submitScans(targets);
 
-				target.getProfile().isTestCertificate();
-				reports.add(new Report(target, vulnerableMessages, scanner.getSafeMessages()));
-				Log.infoln("Scan finished");
-			}
-			
+			/**
+			 * Each report is written as soon as its scan (and all the scans
+			 * before it) is finished, so reports are not kept in memory
+			 */
 			HtmlExport export = new HtmlExport();
-			String report = export.export(reports);
-			Log.infoln(String.format("Scan report saved in [%s]", report));
+			export.open();
+			try {
+				for (int i = 0; i < scans.size(); i++) {
+					Report report = scans.get(i).get();
+					scans.set(i, null); //report is no longer needed
+					vulns += report.getVulnerabilitiesMessages().size();
+					export.write(report);
+				}
+			} finally {
+				String report = export.close();
+				Log.infoln(String.format("Scan report saved in [%s]", report));
+			}
 
 			return vulns == 0;
-		} catch (XmlParserException | IOException ex) {
+		} catch (XmlParserException | IOException | InterruptedException | ExecutionException ex) {
 			Log.errorln(ex);
 			Log.debugException(ex);
+		} finally {
+			if (pool != null) {
+				pool.shutdownNow();
+			}
+			if (ConfigurationRegister.getInstance().getOSaftWorkers() > 0) {
+				OSaftWorkerPool.getInstance().shutdown();
+			}
 		}
 
 		return false;
 	}
 
+	/**
+	 * Submits scan of each target to the worker pool. Returned collection keeps
+	 * the order of the given targets, so the final report is always the same,
+	 * no matter which scan finishes first.
+	 *
+	 * @param targets collection of targets, that will be scanned
+	 * @return collection of pending reports, one for each target
+	 */
+	private List<Future<Report>> submitScans(List<Target> targets) {
+		int threads = ConfigurationRegister.getInstance().getConcurrentScans();
+		pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, targets.size())));
+
+		List<Future<Report>> done = new ArrayList<>();
+		for (Target target : targets) {
+			done.add(pool.submit(() -> scan(target)));
+		}
+
+		return done;
+	}
+
+	/**
+	 * Performs all required scans of the given target
+	 *
+	 * @param target target, that will be scanned
+	 * @return report of the completed scan
+	 */
+	private Report scan(Target target) {
+		Scanner scanner = batched.containsKey(target) ? new Scanner(target, batched.get(target)) : new Scanner(target);
+		if (reachability != null && !reachability.isReachable(target)) {
+			Log.warningln("Target " + target.getDestination() + " is unreachable, scan skipped");
+			scanner.skipScan();
+			return new Report(target, scanner.getVulnerableMessages(), scanner.getSafeMessages());
+		}
+
+		Log.infoln("Running scan of " + target.getDestination());
+		scanner.runScan();
+		Log.infoln("Scan of " + target.getDestination() + " finished");
+
+		return new Report(target, scanner.getVulnerableMessages(), scanner.getSafeMessages());
+	}
+
 }
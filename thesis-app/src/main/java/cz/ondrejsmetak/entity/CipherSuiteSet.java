@@ -0,0 +1,85 @@
+package cz.ondrejsmetak.entity;
+
+import cz.ondrejsmetak.CipherSuiteRegister;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Set of cipher suites, stored as bitset indexed by the cipher suite register.
+ * Cipher suites with different names, but with the same IANA code, are
+ * treated as the same cipher suite.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class CipherSuiteSet extends BaseEntity {
+
+	/**
+	 * Indexes of cipher suites in this set
+	 */
+	private final BitSet indexes = new BitSet();
+
+	/**
+	 * Adds cipher suite with the given name
+	 *
+	 * @param name name of cipher suite
+	 */
+	public void add(String name) {
+		indexes.set(CipherSuiteRegister.getInstance().getIndex(name));
+	}
+
+	/**
+	 * Adds cipher suite with the given IANA code
+	 *
+	 * @param code IANA code of cipher suite
+	 */
+	public void add(int code) {
+		indexes.set(CipherSuiteRegister.getInstance().getIndex(code));
+	}
+
+	/**
+	 * Adds the given cipher suite
+	 *
+	 * @param cipherSuite cipher suite
+	 */
+	public void add(CipherSuite cipherSuite) {
+		add(cipherSuite.getName());
+	}
+
+	/**
+	 * Checks, if this set contains the given cipher suite
+	 *
+	 * @param cipherSuite cipher suite
+	 * @return true, if cipher suite is in this set, false otherwise
+	 */
+	public boolean contains(CipherSuite cipherSuite) {
+		return indexes.get(CipherSuiteRegister.getInstance().getIndex(cipherSuite.getName()));
+	}
+
+	public boolean isEmpty() {
+		return indexes.isEmpty();
+	}
+
+	public int size() {
+		return indexes.cardinality();
+	}
+
+	/**
+	 * Returns cipher suites of this set (with unknown mode)
+	 *
+	 * @return collection of cipher suites
+	 */
+	public List<CipherSuite> getCipherSuites() {
+		List<CipherSuite> done = new ArrayList<>();
+		for (int i = indexes.nextSetBit(0); i >= 0; i = indexes.nextSetBit(i + 1)) {
+			done.add(new CipherSuite(CipherSuiteRegister.getInstance().getName(i)));
+		}
+
+		return done;
+	}
+
+	@Override
+	public String toString() {
+		return getCipherSuites().toString();
+	}
+}
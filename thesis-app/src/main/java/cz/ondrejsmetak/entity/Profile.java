@@ -1,5 +1,6 @@
 package cz.ondrejsmetak.entity;
 
+import cz.ondrejsmetak.CipherSuiteRegister;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -49,11 +50,22 @@ public class Profile extends BaseEntity {
 	 */
 	private Mode vulnerabilities;
 
+	/**
+	 * Mode that affects, if server must enforce its order of cipher suites
+	 */
+	private Mode serverCipherOrder = new Mode(Mode.Type.CAN_BE);
+
 	/**
 	 * Is unknown test result considered as error?
 	 */
 	private boolean unknownTestResultIsError;
 
+	/**
+	 * Must be all the supported cipher suites found, or just the ones named in
+	 * profile?
+	 */
+	private boolean cipherSuitesInventory = false;
+
 	/**
 	 * Names of certificate directives
 	 */
@@ -66,6 +78,7 @@ public class Profile extends BaseEntity {
 	 * Names of general directives
 	 */
 	public static final String UNKNOWN_TEST_RESULT_IS_ERROR = "unknownTestResultIsError";
+	public static final String CIPHER_SUITES_INVENTORY = "cipherSuitesInventory";
 
 	/**
 	 * Creates new empty profile
@@ -88,7 +101,16 @@ public class Profile extends BaseEntity {
 	 * @return collection of all supported general directives
 	 */
 	public static List<String> getAllGeneralDirectives() {
-		return new ArrayList<>(Arrays.asList(new String[]{UNKNOWN_TEST_RESULT_IS_ERROR}));
+		return new ArrayList<>(Arrays.asList(new String[]{UNKNOWN_TEST_RESULT_IS_ERROR, CIPHER_SUITES_INVENTORY}));
+	}
+
+	/**
+	 * Returns general directives, that can be omitted
+	 *
+	 * @return collection of optional general directives
+	 */
+	public static List<String> getOptionalGeneralDirectives() {
+		return new ArrayList<>(Arrays.asList(new String[]{CIPHER_SUITES_INVENTORY}));
 	}
 
 	public String getName() {
@@ -123,13 +145,13 @@ public class Profile extends BaseEntity {
 	}
 
 	/**
-	 * Is required to perform test of vulnerabilities?
+	 * Is required to perform test of cipher suites (or their order)?
 	 *
-	 * @return true, if test of vulnerabilities must be performed, false
+	 * @return true, if test of cipher suites must be performed, false
 	 * otherwise
 	 */
 	public boolean isTestCipherSuites() {
-		return !cipherSuites.isEmpty();
+		return !cipherSuites.isEmpty() || !serverCipherOrder.isCanBe();
 	}
 
 	/**
@@ -150,6 +172,16 @@ public class Profile extends BaseEntity {
 		return vulnerabilities;
 	}
 
+	/**
+	 * Returns mode that indicates, if server must enforce its order of cipher
+	 * suites
+	 *
+	 * @return mode of server order of cipher suites
+	 */
+	public Mode getModeServerCipherOrder() {
+		return serverCipherOrder;
+	}
+
 	/**
 	 * Returns mode that indicates behaviour during scanning of certificate
 	 *
@@ -205,6 +237,10 @@ public class Profile extends BaseEntity {
 		this.vulnerabilities = testVulnerabilities;
 	}
 
+	public void setServerCipherOrder(Mode serverCipherOrder) {
+		this.serverCipherOrder = serverCipherOrder;
+	}
+
 	public void addToProtocols(Protocol protocol) {
 		if (!protocols.contains(protocol)) {
 			protocols.add(protocol);
@@ -259,6 +295,7 @@ public class Profile extends BaseEntity {
 
 	public void setGeneralDirectives(List<Directive> directives) {
 		List<String> expected = getAllGeneralDirectives();
+		expected.removeAll(getOptionalGeneralDirectives());
 		for (Directive d : directives) {
 			if (expected.contains(d.getName())) {
 				expected.remove(d.getName());
@@ -267,6 +304,10 @@ public class Profile extends BaseEntity {
 			if (d.getName().equals(UNKNOWN_TEST_RESULT_IS_ERROR)) {
 				unknownTestResultIsError = (Boolean) d.getValue();
 			}
+
+			if (d.getName().equals(CIPHER_SUITES_INVENTORY)) {
+				cipherSuitesInventory = (Boolean) d.getValue();
+			}
 		}
 
 		if (!expected.isEmpty()) {
@@ -278,6 +319,46 @@ public class Profile extends BaseEntity {
 		return unknownTestResultIsError;
 	}
 
+	/**
+	 * Returns IANA codes of cipher suites, that must be tested. Cipher suites,
+	 * which can be supported, don't affect result, so they aren't tested.
+	 * Register of cipher suites grows during scan, so result can change and
+	 * it must be taken only once per scan of target.
+	 *
+	 * @return codes of cipher suites, that must or must not be supported, or
+	 * null, if all the supported cipher suites must be found (profile asks for
+	 * inventory or code of some cipher suite isn't known)
+	 */
+	public List<Integer> getTargetedCipherSuites() {
+		if (cipherSuitesInventory) {
+			return null;
+		}
+
+		List<Integer> done = new ArrayList<>();
+		for (CipherSuite cipherSuite : cipherSuites) {
+			if (cipherSuite.getMode().isMustBeOrMustNotBe()) {
+				int code = CipherSuiteRegister.getInstance().getCode(cipherSuite.getName());
+				if (code == -1) {
+					return null; //can't be offered, so all the cipher suites must be found
+				}
+				done.add(code);
+			}
+		}
+
+		return done;
+	}
+
+	/**
+	 * Must be all the cipher suites supported by target found? Otherwise, only
+	 * cipher suites named in profile are tested.
+	 *
+	 * @return true, if all the supported cipher suites must be found, false
+	 * otherwise
+	 */
+	public boolean isCipherSuitesInventory() {
+		return cipherSuitesInventory;
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -45,6 +45,14 @@ public class Report {
 		return mixed;
 	}
 
+	/**
+	 * Returns messages related to found vulnerabilities and security issues
+	 * @return collection of messages
+	 */
+	public List<ReportMessage> getVulnerabilitiesMessages() {
+		return vulnerabilitiesMessages;
+	}
+
 	/**
 	 * Returns target related to this report
 	 * @return target related to this report
@@ -1,6 +1,7 @@
 package cz.ondrejsmetak.entity;
 
 import cz.ondrejsmetak.ProfileRegister;
+import cz.ondrejsmetak.tool.Helper;
 
 /**
  * Target, that will be scanned
@@ -24,6 +25,11 @@ public class Target extends BaseEntity {
 	 */
 	private String name = "";
 
+	/**
+	 * Port used, when destination doesn't contain any
+	 */
+	public static final int DEFAULT_PORT = 443;
+
 	/**
 	 * Creates new target with given attributes
 	 *
@@ -53,6 +59,62 @@ public class Target extends BaseEntity {
 		return destination;
 	}
 
+	/**
+	 * Returns host of destination. Destination can be hostname (with optional
+	 * port) or URL.
+	 *
+	 * @return host name or IP address
+	 */
+	public String getHost() {
+		String authority = getAuthority();
+
+		if (authority.startsWith("[")) {
+			int end = authority.indexOf(']');
+			return end == -1 ? authority.substring(1) : authority.substring(1, end); //IPv6 address
+		}
+
+		int colon = authority.indexOf(':');
+		return colon == -1 ? authority : authority.substring(0, colon);
+	}
+
+	/**
+	 * Returns port of destination
+	 *
+	 * @return port given in destination or default port
+	 */
+	public int getPort() {
+		String authority = getAuthority();
+		int colon = authority.lastIndexOf(':');
+
+		if (colon == -1 || authority.lastIndexOf(']') > colon) {
+			return DEFAULT_PORT;
+		}
+
+		String port = authority.substring(colon + 1);
+		return Helper.isInteger(port) ? Integer.parseInt(port) : DEFAULT_PORT;
+	}
+
+	/**
+	 * Returns part of destination with host and port, without scheme and path
+	 *
+	 * @return host and optional port
+	 */
+	private String getAuthority() {
+		String authority = destination.trim();
+
+		int scheme = authority.indexOf("://");
+		if (scheme != -1) {
+			authority = authority.substring(scheme + 3);
+		}
+
+		int path = authority.indexOf('/');
+		if (path != -1) {
+			authority = authority.substring(0, path);
+		}
+
+		return authority;
+	}
+
 	public Profile getProfile() {
 		return ProfileRegister.getInstance().getProfile(profile);
 	}
@@ -28,6 +28,21 @@ public class HtmlExport extends BaseExport {
 	 */
 	private static final String CONTENT_HOOK = "#CONTENT#";
 
+	/**
+	 * Output file
+	 */
+	private File target;
+
+	/**
+	 * Writer of output file, opened during export
+	 */
+	private Writer writer;
+
+	/**
+	 * Part of HTML template after the content
+	 */
+	private String templateEnd;
+
 	/**
 	 * Returns prepared HTML template with no content.
 	 *
@@ -39,35 +54,67 @@ public class HtmlExport extends BaseExport {
 	}
 
 	/**
-	 * Creates content of HTML export. This content may contains multiple scan
-	 * reports
+	 * Creates HTML file and writes beginning of HTML template and heading into
+	 * it. Reports are written by {@link #write(cz.ondrejsmetak.entity.Report)}
+	 * one by one, so they don't have to be kept in memory.
 	 *
-	 * @param reports collection of completed scan reports
-	 * @param timestamp date and time of finished scans
-	 * @return body of HTML file
-	 * @throws FileNotFoundException
+	 * @throws IOException in case of any error
 	 */
-	private String getContent(List<Report> reports, Date timestamp) throws FileNotFoundException {
-		StringBuilder sb = new StringBuilder();
-		sb.append(String.format("<h1>SSL/TLS scan report <small>created %s</small></h1>", Helper.getFormattedDateTime(timestamp, false)));
+	public void open() throws IOException {
+		Date timestamp = new Date();
+		target = new File(Helper.getWorkingDirectory() + File.separator + "report_" + Helper.getFormattedDateTime(timestamp, true) + ".htm");
 
-		for (Report report : reports) {
-			sb.append(doReport(report));
-			sb.append("<hr />");
+		/**
+		 * Template is split only once, content is written between its parts
+		 */
+		String template = getTemplate();
+		int hook = template.indexOf(CONTENT_HOOK);
+		if (hook == -1) {
+			throw new IOException("HTML template doesn't contain " + CONTENT_HOOK + "!");
 		}
+		templateEnd = template.substring(hook + CONTENT_HOOK.length());
 
-		String template = getTemplate();
-		template = template.replace(CONTENT_HOOK, sb.toString());
-		return template;
+		writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(target.getAbsolutePath()), "utf-8"));
+		writer.write(template, 0, hook);
+		writer.write("<h1>SSL/TLS scan report <small>created ");
+		writer.write(Helper.getFormattedDateTime(timestamp, false));
+		writer.write("</small></h1>");
+	}
+
+	/**
+	 * Writes one report into HTML file
+	 *
+	 * @param report report of completed scan
+	 * @throws IOException in case of any error
+	 */
+	public void write(Report report) throws IOException {
+		doReport(report);
+		writer.write("<hr />");
 	}
 
 	/**
-	 * Create HTML table of one report
+	 * Writes end of HTML template and closes HTML file
+	 *
+	 * @return path to newly created HTMl file
+	 * @throws IOException in case of any error
+	 */
+	public String close() throws IOException {
+		try {
+			writer.write(templateEnd);
+		} finally {
+			writer.close();
+		}
+
+		return target.getAbsolutePath();
+	}
+
+	/**
+	 * Writes HTML table of one report
 	 *
 	 * @param report report of completed scan
-	 * @return HTML table
+	 * @throws IOException in case of any error
 	 */
-	private String doReport(Report report) {
+	private void doReport(Report report) throws IOException {
 		List<ReportMessage> protocol = new ArrayList<>();
 		List<ReportMessage> certificate = new ArrayList<>();
 		List<ReportMessage> cipher = new ArrayList<>();
@@ -91,55 +138,63 @@ public class HtmlExport extends BaseExport {
 			}
 		}
 
-		StringBuilder sb = new StringBuilder();
-		sb.append(String.format("<h2>Target: %s (%s)</h2>", report.getTarget().getDestination(), report.getTarget().getName()));
-		sb.append("<table class=\"table table-striped table-hover\">");
-		sb.append("<thead><tr><th>Category</th><th>Mode</th><th>Status</th></tr></thead>");
-		sb.append("<tbody>");
-		sb.append(doCreateTableSegment("Protocols", protocol));
-		sb.append(doCreateTableSegment("Certificate", certificate));
-		sb.append(doCreateTableSegment("Cipher suites", cipher));
-		sb.append(doCreateTableSegment("Vulnerabilities", vulnerability));
-		sb.append("</tbody>");
-		sb.append("</table>");
-		return sb.toString();
+		writer.write("<h2>Target: ");
+		writer.write(report.getTarget().getDestination());
+		writer.write(" (");
+		writer.write(report.getTarget().getName());
+		writer.write(")</h2>");
+		writer.write("<table class=\"table table-striped table-hover\">");
+		writer.write("<thead><tr><th>Category</th><th>Mode</th><th>Status</th></tr></thead>");
+		writer.write("<tbody>");
+		doCreateTableSegment("Protocols", protocol);
+		doCreateTableSegment("Certificate", certificate);
+		doCreateTableSegment("Cipher suites", cipher);
+		doCreateTableSegment("Vulnerabilities", vulnerability);
+		writer.write("</tbody>");
+		writer.write("</table>");
 	}
 
 	/**
-	 * Create one table segment. Each segment represents one category of report
+	 * Writes one table segment. Each segment represents one category of report
 	 * messages
 	 *
 	 * @param segmentName name of segment
 	 * @param messages collection containg report messages
-	 * @return HTML of table segment
+	 * @throws IOException in case of any error
 	 */
-	private String doCreateTableSegment(String segmentName, List<ReportMessage> messages) {
+	private void doCreateTableSegment(String segmentName, List<ReportMessage> messages) throws IOException {
 		if (messages.isEmpty()) {
-			return "";
+			return;
 		}
 
-		StringBuilder sb = new StringBuilder();
-		sb.append(String.format("<tr> <th scope=\"row\" rowspan=\"%s\" class=\"col-xs-1\">%s</th>", messages.size(), segmentName));
+		writer.write("<tr> <th scope=\"row\" rowspan=\"");
+		writer.write(String.valueOf(messages.size()));
+		writer.write("\" class=\"col-xs-1\">");
+		writer.write(segmentName);
+		writer.write("</th>");
 
 		boolean first = true;
 		for (ReportMessage message : messages) {
 			if (!first) {
-				sb.append("<tr>");
+				writer.write("<tr>");
 			}
 
-			sb.append(String.format("<td>%s</td>", message.getRequiredModeHuman()));
-			sb.append(String.format("<td class=\"%s\">%s</td>", typeToCssClass(message), escapeHtml(message.getMessage())));
-			sb.append("</tr>");
+			writer.write("<td>");
+			writer.write(message.getRequiredModeHuman());
+			writer.write("</td><td class=\"");
+			writer.write(typeToCssClass(message));
+			writer.write("\">");
+			writer.write(escapeHtml(message.getMessage()));
+			writer.write("</td>");
+			writer.write("</tr>");
 
 			first = false;
 		}
-
-		return sb.toString();
 	}
 
 	private String escapeHtml(String string) {
-		string = string.replaceAll("<", "&lt;");
-		string = string.replaceAll(">", "&gt;");
+		string = string.replace("<", "&lt;");
+		string = string.replace(">", "&gt;");
 		return string;
 	}
 
@@ -184,13 +239,13 @@ public class HtmlExport extends BaseExport {
 	 * @throws IOException in case of any error
 	 */
 	public String export(List<Report> reports) throws IOException {
-		Date timestamp = new Date();
-		File target = new File(Helper.getWorkingDirectory() + File.separator + "report_" + Helper.getFormattedDateTime(timestamp, true) + ".htm");
-
-		try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(target.getAbsolutePath()), "utf-8"))) {
-			writer.write(getContent(reports, timestamp));
-			writer.flush();
-			writer.close();
+		open();
+		try {
+			for (Report report : reports) {
+				write(report);
+			}
+		} finally {
+			close();
 		}
 
 		return target.getAbsolutePath();
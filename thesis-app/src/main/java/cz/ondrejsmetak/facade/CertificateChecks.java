@@ -0,0 +1,36 @@
+package cz.ondrejsmetak.facade;
+
+import cz.ondrejsmetak.entity.Result;
+
+/**
+ * Results of certificate checks, no matter if they were found by O-Saft or
+ * natively
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public interface CertificateChecks {
+
+	public enum Algorithm {
+		RSA, ECDSA, OTHER
+	}
+
+	public Result getCertificateHostnameMatch();
+
+	public Result getCertificateNotExpired();
+
+	public Result getCertificateIsValid();
+
+	public Result getCertificateFingerprintNotMd5();
+
+	public Result getCertificatePrivateKeySha2();
+
+	public Result getCertificateNotSelfSigned();
+
+	public int getCertificatePublicKeySize();
+
+	public int getCertificateSignatureKeySize();
+
+	public Algorithm getCertificatePublicKeyAlgorithm();
+
+	public Algorithm getCertificateSignatureAlgorithm();
+}
@@ -0,0 +1,289 @@
+package cz.ondrejsmetak.facade;
+
+import cz.ondrejsmetak.entity.Result;
+import cz.ondrejsmetak.tool.Log;
+import java.security.PublicKey;
+import java.security.cert.CertificateExpiredException;
+import java.security.cert.CertificateNotYetValidException;
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509Certificate;
+import java.security.interfaces.DSAPublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import javax.naming.InvalidNameException;
+import javax.naming.ldap.LdapName;
+import javax.naming.ldap.Rdn;
+
+/**
+ * Certificate checks computed in-process from certificate chain, that was
+ * sent by server during handshake
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class NativeCertificateChecks implements CertificateChecks {
+
+	/**
+	 * Types of subject alternative names
+	 */
+	private static final int ALTERNATE_NAME_DNS = 2;
+	private static final int ALTERNATE_NAME_IP = 7;
+
+	private Result certificateHostnameMatch = Result.getUnknown();
+	private Result certificateNotExpired = Result.getUnknown();
+	private Result certificateIsValid = Result.getUnknown();
+	private Result certificateFingerprintNotMd5 = Result.getUnknown();
+	private Result certificatePrivateKeySha2 = Result.getUnknown();
+	private Result certificateNotSelfSigned = Result.getUnknown();
+	private int certificatePublicKeySize = -1;
+	private int certificateSignatureKeySize = -1;
+	private Algorithm certificateSignatureAlgorithm = Algorithm.OTHER;
+	private Algorithm certificatePublicKeyAlgorithm = Algorithm.OTHER;
+
+	/**
+	 * Computes checks of the given chain
+	 *
+	 * @param host host name or IP address of target
+	 * @param chain certificates sent by server, leaf first (all results are
+	 * unknown, if chain is empty)
+	 */
+	public NativeCertificateChecks(String host, List<X509Certificate> chain) {
+		if (chain.isEmpty()) {
+			setUnknown("certificate wasn't received"); //target is down or supports only TLS 1.3
+			return;
+		}
+
+		X509Certificate leaf = chain.get(0);
+		String signatureAlgorithm = leaf.getSigAlgName().toUpperCase(Locale.ROOT);
+		boolean selfSigned = leaf.getSubjectX500Principal().equals(leaf.getIssuerX500Principal());
+
+		certificateHostnameMatch = checkHostname(leaf, host);
+		certificateNotExpired = new Date().after(leaf.getNotAfter()) ? Result.getVulnerable() : Result.getSafe();
+		certificateIsValid = checkValidity(leaf);
+		certificateFingerprintNotMd5 = signatureAlgorithm.contains("MD5") ? Result.getVulnerable(signatureAlgorithm) : Result.getSafe();
+		certificatePrivateKeySha2 = checkSha2(signatureAlgorithm);
+		certificateNotSelfSigned = selfSigned ? Result.getVulnerable() : Result.getSafe();
+
+		certificatePublicKeyAlgorithm = getAlgorithm(leaf.getPublicKey());
+		certificatePublicKeySize = getKeySize(leaf.getPublicKey());
+		certificateSignatureAlgorithm = signatureAlgorithm.contains("ECDSA") ? Algorithm.ECDSA
+				: signatureAlgorithm.contains("RSA") ? Algorithm.RSA : Algorithm.OTHER;
+
+		/**
+		 * Signature key belongs to issuer. Without issuer's certificate, size
+		 * of RSA key is the same as size of signature.
+		 */
+		if (chain.size() > 1) {
+			certificateSignatureKeySize = getKeySize(chain.get(1).getPublicKey());
+		} else if (selfSigned) {
+			certificateSignatureKeySize = certificatePublicKeySize;
+		} else if (certificateSignatureAlgorithm == Algorithm.RSA) {
+			certificateSignatureKeySize = leaf.getSignature().length * 8;
+		}
+	}
+
+	/**
+	 * Sets all the results to unknown
+	 *
+	 * @param note note to results
+	 */
+	private void setUnknown(String note) {
+		certificateHostnameMatch = Result.getUnknown(note);
+		certificateNotExpired = Result.getUnknown(note);
+		certificateIsValid = Result.getUnknown(note);
+		certificateFingerprintNotMd5 = Result.getUnknown(note);
+		certificatePrivateKeySha2 = Result.getUnknown(note);
+		certificateNotSelfSigned = Result.getUnknown(note);
+	}
+
+	/**
+	 * Compares hostname with common name and alternate names in certificate.
+	 * Wildcard covers just one label.
+	 *
+	 * @param leaf certificate of server
+	 * @param host host name or IP address of target
+	 * @return result of comparison
+	 */
+	private Result checkHostname(X509Certificate leaf, String host) {
+		String commonName = getCommonName(leaf);
+		if (commonName != null && isHostnameMatch(host, commonName)) {
+			return Result.getSafe();
+		}
+
+		try {
+			Collection<List<?>> alternateNames = leaf.getSubjectAlternativeNames();
+			if (alternateNames != null) {
+				for (List<?> alternateName : alternateNames) {
+					int type = (Integer) alternateName.get(0);
+					if ((type == ALTERNATE_NAME_DNS || type == ALTERNATE_NAME_IP) && isHostnameMatch(host, (String) alternateName.get(1))) {
+						return Result.getSafe();
+					}
+				}
+			}
+		} catch (CertificateParsingException ex) {
+			Log.debugException(ex);
+		}
+
+		return Result.getVulnerable(host + " <> " + commonName);
+	}
+
+	/**
+	 * Compares hostname with one name from certificate
+	 *
+	 * @param host host name or IP address of target
+	 * @param name name from certificate, can contain wildcard
+	 * @return true, if hostname matches name, false otherwise
+	 */
+	private boolean isHostnameMatch(String host, String name) {
+		host = host.toLowerCase(Locale.ROOT);
+		name = name.toLowerCase(Locale.ROOT);
+
+		if (name.startsWith("*.")) {
+			int dot = host.indexOf('.');
+			return dot > 0 && host.substring(dot).equals(name.substring(1));
+		}
+
+		return host.equals(name);
+	}
+
+	/**
+	 * Returns common name of certificate's subject
+	 *
+	 * @param leaf certificate of server
+	 * @return common name or null, if subject has no common name
+	 */
+	private String getCommonName(X509Certificate leaf) {
+		try {
+			LdapName subject = new LdapName(leaf.getSubjectX500Principal().getName());
+			for (Rdn rdn : subject.getRdns()) {
+				if (rdn.getType().equalsIgnoreCase("CN")) {
+					return rdn.getValue().toString();
+				}
+			}
+		} catch (InvalidNameException ex) {
+			Log.debugException(ex);
+		}
+
+		return null;
+	}
+
+	private Result checkValidity(X509Certificate leaf) {
+		try {
+			leaf.checkValidity();
+			return Result.getSafe();
+		} catch (CertificateExpiredException ex) {
+			return Result.getVulnerable("expired");
+		} catch (CertificateNotYetValidException ex) {
+			return Result.getVulnerable("not yet valid");
+		}
+	}
+
+	private Result checkSha2(String signatureAlgorithm) {
+		if (signatureAlgorithm.matches(".*SHA-?(224|256|384|512).*")) {
+			return Result.getSafe();
+		}
+
+		if (signatureAlgorithm.contains("MD2") || signatureAlgorithm.contains("MD5") || signatureAlgorithm.contains("SHA1")) {
+			return Result.getVulnerable(signatureAlgorithm);
+		}
+
+		return Result.getUnknown(signatureAlgorithm); //for example RSASSA-PSS or EdDSA
+	}
+
+	private Algorithm getAlgorithm(PublicKey key) {
+		if (key instanceof RSAPublicKey) {
+			return Algorithm.RSA;
+		}
+
+		if (key instanceof ECPublicKey) {
+			return Algorithm.ECDSA;
+		}
+
+		return Algorithm.OTHER;
+	}
+
+	private int getKeySize(PublicKey key) {
+		if (key instanceof RSAPublicKey) {
+			return ((RSAPublicKey) key).getModulus().bitLength();
+		}
+
+		if (key instanceof ECPublicKey) {
+			return ((ECPublicKey) key).getParams().getCurve().getField().getFieldSize();
+		}
+
+		if (key instanceof DSAPublicKey) {
+			return ((DSAPublicKey) key).getParams().getP().bitLength();
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns names of subjects in the given chain, useful for debugging
+	 *
+	 * @param chain certificates, leaf first
+	 * @return names of subjects
+	 */
+	public static List<String> getSubjects(List<X509Certificate> chain) {
+		List<String> subjects = new ArrayList<>();
+		for (X509Certificate certificate : chain) {
+			subjects.add(certificate.getSubjectX500Principal().getName());
+		}
+
+		return subjects;
+	}
+
+	@Override
+	public Result getCertificateHostnameMatch() {
+		return certificateHostnameMatch;
+	}
+
+	@Override
+	public Result getCertificateNotExpired() {
+		return certificateNotExpired;
+	}
+
+	@Override
+	public Result getCertificateIsValid() {
+		return certificateIsValid;
+	}
+
+	@Override
+	public Result getCertificateFingerprintNotMd5() {
+		return certificateFingerprintNotMd5;
+	}
+
+	@Override
+	public Result getCertificatePrivateKeySha2() {
+		return certificatePrivateKeySha2;
+	}
+
+	@Override
+	public Result getCertificateNotSelfSigned() {
+		return certificateNotSelfSigned;
+	}
+
+	@Override
+	public int getCertificatePublicKeySize() {
+		return certificatePublicKeySize;
+	}
+
+	@Override
+	public int getCertificateSignatureKeySize() {
+		return certificateSignatureKeySize;
+	}
+
+	@Override
+	public Algorithm getCertificatePublicKeyAlgorithm() {
+		return certificatePublicKeyAlgorithm;
+	}
+
+	@Override
+	public Algorithm getCertificateSignatureAlgorithm() {
+		return certificateSignatureAlgorithm;
+	}
+}
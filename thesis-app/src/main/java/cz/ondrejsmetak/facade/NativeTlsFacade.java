@@ -0,0 +1,308 @@
+package cz.ondrejsmetak.facade;
+
+import cz.ondrejsmetak.CipherSuiteRegister;
+import cz.ondrejsmetak.ConfigurationRegister;
+import cz.ondrejsmetak.entity.CipherSuiteSet;
+import cz.ondrejsmetak.entity.Protocol;
+import cz.ondrejsmetak.entity.Result;
+import cz.ondrejsmetak.entity.Target;
+import cz.ondrejsmetak.tls.BaseCipherSuiteEnumerator;
+import cz.ondrejsmetak.tls.EliminationCipherSuiteEnumerator;
+import cz.ondrejsmetak.tls.OneByOneCipherSuiteEnumerator;
+import cz.ondrejsmetak.tls.ProbeResult;
+import cz.ondrejsmetak.tls.ProtocolProber;
+import cz.ondrejsmetak.tls.ServerCipherOrder;
+import cz.ondrejsmetak.tls.TlsProbe;
+import cz.ondrejsmetak.tls.TlsVersion;
+import cz.ondrejsmetak.tool.Log;
+import java.io.ByteArrayInputStream;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests target natively, by sending handshake messages directly from Java. No
+ * external tool is needed.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class NativeTlsFacade extends BaseFacade {
+
+	/**
+	 * Target, that will be scanned
+	 */
+	private final Target target;
+
+	/**
+	 * Cipher suites supported by target
+	 */
+	private final CipherSuiteSet supportedCipherSuites = new CipherSuiteSet();
+
+	/**
+	 * Does server enforce its order of cipher suites? Found out during
+	 * enumeration of cipher suites.
+	 */
+	private Result serverCipherOrderEnforced = Result.getUnknown("detected only by native enumeration of cipher suites");
+
+	/**
+	 * Results of protocols, with the same meaning as results from O-Saft
+	 */
+	private final Map<Protocol.Type, Result> protocols = new EnumMap<>(Protocol.Type.class);
+
+	/**
+	 * Versions, in which certificates are fetched, the first supported is used
+	 */
+	private static final List<TlsVersion> CERTIFICATE_VERSIONS = Arrays.asList(TlsVersion.TLSv12, TlsVersion.TLSv11,
+			TlsVersion.TLSv10, TlsVersion.SSLv3);
+
+	/**
+	 * Results of certificate checks
+	 */
+	private CertificateChecks certificateChecks = new NativeCertificateChecks(null, new ArrayList<>());
+
+	/**
+	 * Did target answer at least one handshake in each of the native scans?
+	 */
+	private boolean succesfulConnection = true;
+
+	/**
+	 * Were all the probes of cipher suites answered? If not, supported cipher
+	 * suites may be missing.
+	 */
+	private boolean cipherSuitesComplete = true;
+
+	/**
+	 * IANA codes of cipher suites named in profile, or null, if all the cipher
+	 * suites must be found
+	 */
+	private final List<Integer> targetedCipherSuites;
+
+	/**
+	 * Creates new native API for given target
+	 *
+	 * @param target target, that will be scanned
+	 * @param targetedCipherSuites codes of cipher suites, that are tested, or
+	 * null, if all the cipher suites are tested (the same as in plan of
+	 * O-Saft)
+	 */
+	public NativeTlsFacade(Target target, List<Integer> targetedCipherSuites) {
+		this.target = target;
+		this.targetedCipherSuites = targetedCipherSuites;
+	}
+
+	/**
+	 * Finds out cipher suites supported by target, in all the versions of
+	 * protocol. Unless profile asks for inventory, only cipher suites named in
+	 * profile are offered. Order of cipher suites is found out from the same
+	 * handshakes, but it needs as many supported cipher suites as possible, so
+	 * all of them are offered, if profile has rule about order.
+	 */
+	public void runScanCipherSuites() {
+		int timeout = ConfigurationRegister.getInstance().getNativeTimeout() * 1000;
+
+		TlsProbe probe = new TlsProbe(target.getHost(), target.getPort(), timeout);
+		BaseCipherSuiteEnumerator enumerator = createEnumerator(probe);
+		List<Integer> targeted = target.getProfile().getModeServerCipherOrder().isCanBe() ? targetedCipherSuites : null;
+		if (targeted != null && targeted.isEmpty()) {
+			targeted = null; //at least one handshake is needed to tell, if target is up
+		}
+		List<Integer> known = targeted != null ? targeted : CipherSuiteRegister.getInstance().getCodes();
+		StringBuilder handshakes = new StringBuilder();
+		List<TlsVersion> clientOrder = new ArrayList<>();
+		boolean serverOrder = false;
+
+		for (TlsVersion version : TlsVersion.values()) {
+			int before = probe.getHandshakes();
+			for (Integer cipherSuite : enumerator.enumerate(version, getCandidates(known, version))) {
+				supportedCipherSuites.add(cipherSuite);
+			}
+			handshakes.append(String.format(" %s:%s", version, probe.getHandshakes() - before));
+
+			if (enumerator.getServerCipherOrder() == ServerCipherOrder.CLIENT) {
+				clientOrder.add(version);
+			}
+			serverOrder |= enumerator.getServerCipherOrder() == ServerCipherOrder.ENFORCED;
+		}
+
+		if (!clientOrder.isEmpty()) {
+			serverCipherOrderEnforced = Result.getVulnerable("client's order in " + clientOrder);
+		} else if (serverOrder) {
+			serverCipherOrderEnforced = Result.getSafe();
+		} else {
+			serverCipherOrderEnforced = Result.getUnknown("handshakes didn't tell");
+		}
+
+		succesfulConnection &= enumerator.isAnswered();
+		cipherSuitesComplete = enumerator.isComplete();
+		if (!cipherSuitesComplete) {
+			Log.warningln("Some probes of cipher suites of " + target.getDestination() + " failed, supported cipher suites are incomplete");
+		}
+		Log.infoln(String.format("Cipher suites of %s tested natively (%s, %s cipher suites), %s handshakes made [%s ]", target.getDestination(),
+				enumerator.getClass().getSimpleName(), targeted != null ? "targeted" : "all", probe.getHandshakes(), handshakes));
+	}
+
+	/**
+	 * Finds out versions of protocol supported by target, one handshake per
+	 * version
+	 */
+	public void runScanProtocols() {
+		int timeout = ConfigurationRegister.getInstance().getNativeTimeout() * 1000;
+		TlsProbe probe = new TlsProbe(target.getHost(), target.getPort(), timeout);
+		Map<TlsVersion, ProbeResult> results = new ProtocolProber(probe).probe(CipherSuiteRegister.getInstance().getCodes());
+
+		boolean answered = false;
+		for (Map.Entry<TlsVersion, ProbeResult> entry : results.entrySet()) {
+			answered |= !entry.getValue().isFailed();
+			protocols.put(Protocol.Type.valueOf(entry.getKey().name()), toResult(entry.getKey(), entry.getValue())); //names of constants are the same
+		}
+
+		succesfulConnection &= answered;
+		Log.infoln(String.format("Protocols of %s tested natively, %s handshakes made", target.getDestination(), probe.getHandshakes()));
+	}
+
+	/**
+	 * Fetches certificate chain from the handshake and checks it. Reading
+	 * stops at Certificate message, so one cheap connection is usually enough.
+	 */
+	public void runScanCertificate() {
+		int timeout = ConfigurationRegister.getInstance().getNativeTimeout() * 1000;
+		TlsProbe probe = new TlsProbe(target.getHost(), target.getPort(), timeout);
+		List<Integer> known = CipherSuiteRegister.getInstance().getCodes();
+
+		boolean answered = false;
+		List<X509Certificate> chain = new ArrayList<>();
+		for (TlsVersion version : CERTIFICATE_VERSIONS) {
+			ProbeResult result = probe.fetchCertificatesAsync(version, getCandidates(known, version)).join();
+			answered |= !result.isFailed();
+
+			if (result.isAccepted(version) && !result.getCertificates().isEmpty()) {
+				chain = parseChain(result.getCertificates());
+				break;
+			}
+		}
+
+		certificateChecks = new NativeCertificateChecks(target.getHost(), chain);
+		succesfulConnection &= answered;
+		Log.infoln(String.format("Certificate of %s tested natively, %s handshakes made, chain %s", target.getDestination(),
+				probe.getHandshakes(), NativeCertificateChecks.getSubjects(chain)));
+	}
+
+	/**
+	 * Parses DER encoded certificates
+	 *
+	 * @param certificates DER encoded certificates, leaf first
+	 * @return parsed certificates, empty if some of them can't be parsed
+	 */
+	private List<X509Certificate> parseChain(List<byte[]> certificates) {
+		List<X509Certificate> chain = new ArrayList<>();
+		try {
+			CertificateFactory factory = CertificateFactory.getInstance("X.509");
+			for (byte[] certificate : certificates) {
+				chain.add((X509Certificate) factory.generateCertificate(new ByteArrayInputStream(certificate)));
+			}
+		} catch (CertificateException ex) {
+			Log.debugException(ex);
+			chain.clear();
+		}
+
+		return chain;
+	}
+
+	/**
+	 * Converts result of probe to result of protocol test. Like O-Saft, support
+	 * of SSL is vulnerable and support of TLS is safe.
+	 *
+	 * @param version version of protocol
+	 * @param result result of probe
+	 * @return result of protocol test
+	 */
+	private Result toResult(TlsVersion version, ProbeResult result) {
+		if (result.isFailed()) {
+			return Result.getUnknown("handshake failed");
+		}
+
+		boolean supported = result.isAccepted(version);
+		boolean ssl = version == TlsVersion.SSLv2 || version == TlsVersion.SSLv3;
+
+		return supported != ssl ? Result.getSafe() : Result.getVulnerable();
+	}
+
+	/**
+	 * Creates enumerator of cipher suites chosen by configuration
+	 *
+	 * @param probe probe of target
+	 * @return enumerator of cipher suites
+	 */
+	private BaseCipherSuiteEnumerator createEnumerator(TlsProbe probe) {
+		if (ConfigurationRegister.getInstance().isCipherSuitesEnumerationOneByOne()) {
+			return new OneByOneCipherSuiteEnumerator(probe);
+		}
+
+		return new EliminationCipherSuiteEnumerator(probe);
+	}
+
+	/**
+	 * Returns cipher suites, that can be negotiated in the given version
+	 *
+	 * @param known IANA codes of all the known cipher suites
+	 * @param version version of protocol
+	 * @return IANA codes of candidates
+	 */
+	private List<Integer> getCandidates(List<Integer> known, TlsVersion version) {
+		List<Integer> candidates = new ArrayList<>();
+		for (Integer cipherSuite : known) {
+			if (version.isApplicable(cipherSuite)) {
+				candidates.add(cipherSuite);
+			}
+		}
+
+		return candidates;
+	}
+
+	public CipherSuiteSet getSupportedCipherSuites() {
+		return supportedCipherSuites;
+	}
+
+	/**
+	 * Does server enforce its order of cipher suites?
+	 *
+	 * @return safe, if server enforces its order, vulnerable, if it follows
+	 * client's order in some version, unknown otherwise
+	 */
+	public Result getServerCipherOrderEnforced() {
+		return serverCipherOrderEnforced;
+	}
+
+	/**
+	 * Returns result of the given protocol
+	 *
+	 * @param type type of protocol
+	 * @return result of protocol, unknown if protocols weren't tested
+	 */
+	public Result getProtocol(Protocol.Type type) {
+		return protocols.getOrDefault(type, Result.getUnknown());
+	}
+
+	public CertificateChecks getCertificateChecks() {
+		return certificateChecks;
+	}
+
+	/**
+	 * Were cipher suites enumerated completely? Cipher suite, that isn't among
+	 * supported ones, may be supported, if enumeration is incomplete.
+	 *
+	 * @return true, if enumeration is complete, false otherwise
+	 */
+	public boolean isCipherSuitesComplete() {
+		return cipherSuitesComplete;
+	}
+
+	public boolean isSuccesfulConnection() {
+		return succesfulConnection;
+	}
+}
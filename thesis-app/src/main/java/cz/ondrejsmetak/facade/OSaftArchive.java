@@ -0,0 +1,245 @@
+package cz.ondrejsmetak.facade;
+
+import cz.ondrejsmetak.tool.Helper;
+import cz.ondrejsmetak.tool.Log;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive of raw O-Saft output. Each run of O-Saft is stored as gzipped
+ * transcript in folder of its target, named by time of run and O-Saft
+ * commands. The first line of transcript contains all the arguments of run,
+ * because options (for example range of cipher suites) change meaning of
+ * output. Transcripts can be passed to parser again later, without running
+ * O-Saft.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class OSaftArchive {
+
+	/**
+	 * Folder with transcripts, in working directory
+	 */
+	private static final String FOLDER = "archive";
+
+	/**
+	 * Extension of transcripts
+	 */
+	private static final String EXTENSION = ".txt.gz";
+
+	/**
+	 * Start of the first line of transcript, followed by arguments of run
+	 * separated by tab
+	 */
+	private static final String HEADER = "#O-Saft args:";
+
+	/**
+	 * Instance of this class
+	 */
+	private static OSaftArchive instance = null;
+
+	/**
+	 * Folder with transcripts
+	 */
+	private final File folder;
+
+	protected OSaftArchive() {
+		this.folder = new File(Helper.getWorkingDirectory() + File.separator + FOLDER);
+	}
+
+	/**
+	 * Returns a instance of this class
+	 *
+	 * @return instance of this class
+	 */
+	public static synchronized OSaftArchive getInstance() {
+		if (instance == null) {
+			instance = new OSaftArchive();
+		}
+		return instance;
+	}
+
+	/**
+	 * Starts new transcript of O-Saft run
+	 *
+	 * @param destination destination of target
+	 * @param args arguments of O-Saft, commands are used in name of transcript
+	 * @return transcript or null, if it can't be written
+	 */
+	public Transcript record(String destination, String... args) {
+		StringBuilder name = new StringBuilder(new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss-SSS").format(new Date()));
+		for (String arg : args) {
+			if (arg.startsWith("+")) {
+				name.append(arg); //commands start with plus, so they are separated by it
+			}
+		}
+
+		try {
+			File targetFolder = getFolder(destination);
+			Files.createDirectories(targetFolder.toPath());
+			Transcript transcript = new Transcript(new File(targetFolder, name + EXTENSION));
+			transcript.accept(HEADER + "\t" + String.join("\t", args));
+			return transcript;
+		} catch (IOException ex) {
+			Log.debugException(ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Finds the newest transcript, that contains output of the given command
+	 * and whose arguments are accepted. Transcript without arguments (written
+	 * by older version) is never accepted.
+	 *
+	 * @param destination destination of target
+	 * @param command O-Saft command
+	 * @param accepted test of arguments of run
+	 * @return transcript or null, if there is no such transcript
+	 */
+	public File findLatest(String destination, String command, Predicate<List<String>> accepted) {
+		File[] files = getFolder(destination).listFiles((dir, name) -> name.endsWith(EXTENSION));
+		if (files == null) {
+			return null;
+		}
+
+		List<File> candidates = new ArrayList<>();
+		for (File file : files) {
+			String name = file.getName();
+			List<String> parts = Arrays.asList(name.substring(0, name.length() - EXTENSION.length()).split("\\+"));
+			if (parts.subList(1, parts.size()).contains(command.substring(1))) {
+				candidates.add(file);
+			}
+		}
+
+		candidates.sort(Comparator.comparing(File::getName).reversed()); //time is first in name, so names are ordered by time
+		for (File candidate : candidates) {
+			List<String> args = readArgs(candidate);
+			if (args != null && accepted.test(args)) {
+				return candidate;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Reads arguments of run from the first line of the given transcript
+	 *
+	 * @param file transcript
+	 * @return arguments or null, if transcript doesn't contain them
+	 */
+	private List<String> readArgs(File file) {
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+			String line = in.readLine();
+			if (line == null || !line.startsWith(HEADER)) {
+				return null;
+			}
+
+			List<String> args = new ArrayList<>(Arrays.asList(line.substring(HEADER.length()).split("\t")));
+			args.remove("");
+			return args;
+		} catch (IOException ex) {
+			Log.debugException(ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Passes each line of the given transcript, except arguments of run, to
+	 * consumer
+	 *
+	 * @param file transcript
+	 * @param consumer receiver of lines
+	 */
+	public void replay(File file, Consumer<String> consumer) {
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+			String line = in.readLine();
+			if (line != null && !line.startsWith(HEADER)) {
+				consumer.accept(line);
+			}
+			while ((line = in.readLine()) != null) {
+				consumer.accept(line);
+			}
+		} catch (IOException ex) {
+			Log.debugException(ex);
+		}
+	}
+
+	/**
+	 * Returns folder with transcripts of the given target
+	 *
+	 * @param destination destination of target
+	 * @return folder, which may not exist
+	 */
+	private File getFolder(String destination) {
+		return new File(folder, destination.replaceAll("[^A-Za-z0-9.-]", "_"));
+	}
+
+	/**
+	 * Transcript, that is being written. It is written into temporary file and
+	 * moved to archive when finished, so incomplete transcript is never
+	 * replayed.
+	 */
+	public static class Transcript implements Consumer<String> {
+
+		private final File file;
+		private final File temporary;
+		private final BufferedWriter out;
+		private boolean failed = false;
+
+		private Transcript(File file) throws IOException {
+			this.file = file;
+			this.temporary = new File(file.getPath() + ".tmp");
+			this.out = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(temporary)), StandardCharsets.UTF_8));
+		}
+
+		@Override
+		public synchronized void accept(String line) {
+			try {
+				out.write(line);
+				out.newLine();
+			} catch (IOException ex) {
+				failed = true;
+				Log.debugException(ex);
+			}
+		}
+
+		/**
+		 * Finishes transcript
+		 *
+		 * @param complete true, if transcript is stored in archive, false if
+		 * it is thrown away (for example, when O-Saft was killed)
+		 */
+		public synchronized void finish(boolean complete) {
+			try {
+				out.close();
+				if (complete && !failed) {
+					Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				} else {
+					Files.delete(temporary.toPath());
+				}
+			} catch (IOException ex) {
+				Log.debugException(ex);
+			}
+		}
+	}
+}
@@ -0,0 +1,250 @@
+package cz.ondrejsmetak.facade;
+
+import cz.ondrejsmetak.entity.Target;
+import cz.ondrejsmetak.tool.CommandOutput;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Batch of targets, that are scanned by a single O-Saft process, so Perl
+ * interpreter is started only once for all of them. Only targets with the
+ * same plan of O-Saft run can be scanned together. O-Saft marks each line of
+ * output with host and port of its target (option --showhost), so output is
+ * split back to the targets while it's being read.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class OSaftBatch {
+
+	/**
+	 * Option of O-Saft, that marks each line with target
+	 */
+	private static final String SHOW_HOST = "--showhost";
+
+	/**
+	 * Members of batch
+	 */
+	private final List<OSaftFacade> members = new ArrayList<>();
+
+	/**
+	 * Markers of targets, the more specific ones first, and receivers of their
+	 * lines
+	 */
+	private final Map<String, Consumer<String>> markers = new LinkedHashMap<>();
+
+	/**
+	 * Host and port of each target and receiver of its lines
+	 */
+	private final Map<String, Consumer<String>> hostPorts = new LinkedHashMap<>();
+
+	/**
+	 * Receiver of the last line with marker
+	 */
+	private Consumer<String> current;
+
+	/**
+	 * Was batch already scanned?
+	 */
+	private boolean finished = false;
+
+	private OSaftBatch() {
+		//batches are made by create()
+	}
+
+	/**
+	 * Splits the given targets into batches of targets with the same plan of
+	 * O-Saft run. Target, that would be alone in its batch, isn't batched.
+	 *
+	 * @param targets collection of targets
+	 * @param size maximum number of targets in one batch
+	 * @return O-Saft facade of each batched target
+	 */
+	public static Map<Target, OSaftFacade> create(List<Target> targets, int size) {
+		Map<String, List<OSaftFacade>> groups = new LinkedHashMap<>();
+		for (Target target : targets) {
+			OSaftFacade facade = new OSaftFacade(target); //plan used for grouping is the one, that is run
+			OSaftCommandPlanner planner = facade.getPlanner();
+			if (planner.getSections().isEmpty()) {
+				continue; //O-Saft isn't run at all
+			}
+
+			List<String> args = new ArrayList<>(planner.getOptions());
+			for (OSaftSection section : planner.getSections()) {
+				args.addAll(planner.getCommands(section));
+			}
+			groups.computeIfAbsent(String.join(" ", args), key -> new ArrayList<>()).add(facade);
+		}
+
+		Map<Target, OSaftFacade> facades = new IdentityHashMap<>();
+		for (List<OSaftFacade> group : groups.values()) {
+			for (int start = 0; start + 1 < group.size(); start += size) {
+				OSaftBatch batch = new OSaftBatch();
+				for (OSaftFacade facade : group.subList(start, Math.min(start + size, group.size()))) {
+					facade.setBatch(batch);
+					batch.members.add(facade);
+					facades.put(facade.getTarget(), facade);
+				}
+			}
+		}
+
+		return facades;
+	}
+
+	/**
+	 * Scans all the members of batch. It's called by each member, but only
+	 * the first call runs O-Saft, the others wait until it's finished.
+	 */
+	synchronized void runScan() {
+		if (finished) {
+			return;
+		}
+		finished = true;
+
+		Map<OSaftFacade, List<OSaftSection>> pending = new IdentityHashMap<>();
+		Set<OSaftSection> sections = EnumSet.noneOf(OSaftSection.class);
+		for (OSaftFacade member : members) {
+			List<OSaftSection> memberSections = member.start();
+			if (!memberSections.isEmpty()) {
+				pending.put(member, memberSections); //members with all the sections cached aren't run
+				sections.addAll(memberSections);
+			}
+		}
+
+		if (!pending.isEmpty()) {
+			List<OSaftSection> batchSections = new ArrayList<>(sections);
+			OSaftFacade first = members.stream().filter(pending::containsKey).findFirst().get();
+
+			List<String> args = new ArrayList<>();
+			for (OSaftFacade member : members) {
+				if (pending.containsKey(member)) {
+					args.add(member.getTarget().getDestination());
+				}
+			}
+			args.addAll(first.getPlanner().getOptions());
+			args.add(SHOW_HOST);
+			args.addAll(first.getCommands(batchSections));
+
+			setMarkers(pending, batchSections);
+			CommandOutput output = OSaftFacade.execute(this::route, pending.size(), args.toArray(new String[args.size()]));
+			for (OSaftFacade member : pending.keySet()) {
+				member.finishBatched(!output.isTimedOut());
+			}
+		}
+
+		for (OSaftFacade member : members) {
+			member.finish();
+		}
+	}
+
+	/**
+	 * Prepares markers of members, by which lines of output are recognized.
+	 * Host and port is checked before host alone, which is used only when it's
+	 * unique in batch.
+	 *
+	 * @param pending sections of each member, that must be run
+	 * @param batchSections sections run by batch
+	 */
+	private void setMarkers(Map<OSaftFacade, List<OSaftSection>> pending, List<OSaftSection> batchSections) {
+		Map<String, Consumer<String>> hosts = new LinkedHashMap<>();
+		Map<String, Integer> hostCounts = new LinkedHashMap<>();
+
+		markers.clear();
+		hostPorts.clear();
+		for (OSaftFacade member : members) {
+			if (!pending.containsKey(member)) {
+				continue;
+			}
+
+			Target target = member.getTarget();
+			Consumer<String> consumer = member.startBatched(pending.get(member), batchSections);
+			markers.put(target.getDestination(), consumer);
+			markers.put(target.getHost() + ":" + target.getPort(), consumer);
+			hostPorts.put(target.getHost() + ":" + target.getPort(), consumer);
+			hosts.put(target.getHost(), consumer);
+			hostCounts.merge(target.getHost(), 1, Integer::sum);
+		}
+
+		for (Map.Entry<String, Consumer<String>> entry : hosts.entrySet()) {
+			if (hostCounts.get(entry.getKey()) == 1) {
+				markers.putIfAbsent(entry.getKey(), entry.getValue());
+			}
+		}
+
+		current = markers.values().iterator().next();
+	}
+
+	/**
+	 * Passes the given line, without marker, to its target. Line without
+	 * marker (for example warning of O-Saft) belongs to the target, whose host
+	 * and port it mentions, or to the same target as the previous line.
+	 *
+	 * @param line line of O-Saft output
+	 */
+	private void route(String line) {
+		for (Map.Entry<String, Consumer<String>> marker : markers.entrySet()) {
+			int length = marker.getKey().length();
+			if (line.startsWith(marker.getKey()) && (line.length() == length || isSeparator(line.charAt(length)))) {
+				current = marker.getValue();
+				current.accept(line.substring(Math.min(length + 1, line.length())));
+				return;
+			}
+		}
+
+		for (Map.Entry<String, Consumer<String>> hostPort : hostPorts.entrySet()) {
+			if (mentions(line, hostPort.getKey())) {
+				hostPort.getValue().accept(line);
+				return;
+			}
+		}
+
+		current.accept(line);
+	}
+
+	/**
+	 * Does the given line mention the given host and port? Host and port must
+	 * not be a part of longer host name or port, so line about
+	 * "ba.example.com:443" doesn't mention "a.example.com:443".
+	 *
+	 * @param line line of O-Saft output
+	 * @param hostPort host and port of target
+	 * @return true, if line mentions host and port, false otherwise
+	 */
+	private boolean mentions(String line, String hostPort) {
+		for (int index = line.indexOf(hostPort); index != -1; index = line.indexOf(hostPort, index + 1)) {
+			int end = index + hostPort.length();
+			boolean startsAlone = index == 0 || !isHostCharacter(line.charAt(index - 1));
+			boolean endsAlone = end == line.length() || !Character.isDigit(line.charAt(end));
+			if (startsAlone && endsAlone) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Can the given character be a part of host name?
+	 *
+	 * @param character character before host
+	 * @return true, if it can be a part of host name, false otherwise
+	 */
+	private boolean isHostCharacter(char character) {
+		return Character.isLetterOrDigit(character) || character == '.' || character == '-';
+	}
+
+	/**
+	 * Is the given character a separator between marker and line?
+	 *
+	 * @param character character after marker
+	 * @return true, if it's a separator, false otherwise
+	 */
+	private boolean isSeparator(char character) {
+		return character == '\t' || character == ':' || character == ' ';
+	}
+}
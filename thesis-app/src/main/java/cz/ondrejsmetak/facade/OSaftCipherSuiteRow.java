@@ -0,0 +1,165 @@
+package cz.ondrejsmetak.facade;
+
+import cz.ondrejsmetak.CipherSuiteRegister;
+import cz.ondrejsmetak.entity.Protocol;
+
+/**
+ * One line of cipher suites section of O-Saft output, i.e. cipher suite
+ * accepted by target under one protocol. Line has exactly eight columns,
+ * separated by comma and space, for example
+ * "TLSv12, 256, ECDHE, RSA, AESGCM, 0xC0,0x30, ECDHE-RSA-AES256-GCM-SHA384,
+ * yes".
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class OSaftCipherSuiteRow {
+
+	/**
+	 * Number of columns of cipher suite line
+	 */
+	private static final int COLUMNS = 8;
+
+	/**
+	 * Symmetric ciphers with 64-bit block, that are broken by Sweet32
+	 */
+	private static final String[] BLOCK_64_BIT_CIPHERS = {"3DES", "DES", "IDEA", "RC2", "CAST"};
+
+	/**
+	 * Protocol, under which cipher suite was accepted, or null, if O-Saft
+	 * printed unknown protocol
+	 */
+	private final Protocol.Type protocol;
+
+	/**
+	 * Strength of cipher in bits, or zero, if it's not a number
+	 */
+	private final int bits;
+
+	private final String keyExchange;
+	private final String authentication;
+	private final String encryption;
+
+	/**
+	 * Code defined in RFC
+	 */
+	private final int code;
+
+	private final String name;
+
+	/**
+	 * Last column, kept as it was printed by O-Saft
+	 */
+	private final String flag;
+
+	private OSaftCipherSuiteRow(String[] pieces) {
+		this.protocol = parseProtocol(pieces[0].trim());
+		this.bits = parseBits(pieces[1].trim());
+		this.keyExchange = pieces[2].trim();
+		this.authentication = pieces[3].trim();
+		this.encryption = pieces[4].trim();
+		this.code = CipherSuiteRegister.parseCode(pieces[5]);
+		this.name = pieces[6].trim();
+		this.flag = pieces[7].trim();
+	}
+
+	/**
+	 * Parses the given line of O-Saft output
+	 *
+	 * @param line line of O-Saft output
+	 * @return row or null, if line doesn't describe cipher suite
+	 */
+	public static OSaftCipherSuiteRow parse(String line) {
+		if (!line.contains("0x")) {
+			return null; //cheap check first, most of lines are not cipher suites
+		}
+
+		String[] pieces = line.split(", ");
+		/**
+		 * Cipher has exactly eight items in array and fifth item is hex code defined in RFC
+		 */
+		if (pieces.length != COLUMNS || !pieces[5].trim().startsWith("0x")) {
+			return null;
+		}
+
+		return new OSaftCipherSuiteRow(pieces);
+	}
+
+	private static Protocol.Type parseProtocol(String value) {
+		try {
+			return new Protocol(value).getType();
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+
+	private static int parseBits(String value) {
+		try {
+			return Integer.parseInt(value);
+		} catch (NumberFormatException ex) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Does cipher suite use RC4 stream cipher?
+	 *
+	 * @return true, if cipher suite uses RC4, false otherwise
+	 */
+	public boolean isRc4() {
+		return encryption.toUpperCase().contains("RC4") || name.toUpperCase().contains("RC4");
+	}
+
+	/**
+	 * Does cipher suite use cipher with 64-bit block, so it's vulnerable to
+	 * Sweet32?
+	 *
+	 * @return true, if cipher suite uses 64-bit block cipher, false otherwise
+	 */
+	public boolean isBlock64Bit() {
+		String upperEncryption = encryption.toUpperCase();
+		for (String cipher : BLOCK_64_BIT_CIPHERS) {
+			if (upperEncryption.startsWith(cipher)) {
+				return true;
+			}
+		}
+
+		return name.toUpperCase().contains("DES-CBC3") || name.toUpperCase().contains("3DES");
+	}
+
+	@Override
+	public String toString() {
+		return protocol + " " + name;
+	}
+
+	public Protocol.Type getProtocol() {
+		return protocol;
+	}
+
+	public int getBits() {
+		return bits;
+	}
+
+	public String getKeyExchange() {
+		return keyExchange;
+	}
+
+	public String getAuthentication() {
+		return authentication;
+	}
+
+	public String getEncryption() {
+		return encryption;
+	}
+
+	public int getCode() {
+		return code;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getFlag() {
+		return flag;
+	}
+}
@@ -0,0 +1,264 @@
+package cz.ondrejsmetak.facade;
+
+import cz.ondrejsmetak.ConfigurationRegister;
+import cz.ondrejsmetak.entity.CipherSuite;
+import cz.ondrejsmetak.entity.Profile;
+import cz.ondrejsmetak.entity.Protocol;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plans O-Saft run according to rules of profile. Only sections, whose
+ * results can change the report, are run. Sub-checks of O-Saft, that are
+ * never read (DNS and HTTP, including redirects), are turned off. Unless
+ * profile asks for inventory, only cipher suites named in profile are tested.
+ * When all the cipher suites are tested, protocols and checks, that depend
+ * only on accepted cipher suites, are derived from them instead of being run.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class OSaftCommandPlanner {
+
+	/**
+	 * Options of O-Saft, that turn off unused sub-checks
+	 */
+	private static final List<String> OPTIONS = Arrays.asList("--no-dns", "--no-http");
+
+	/**
+	 * Checks of vulnerabilities section, that can be derived from cipher
+	 * suites
+	 */
+	private static final List<String> DERIVED_COMMANDS = Arrays.asList("+rc4", "+sweet32", "+hassslv2", "+hassslv3");
+
+	/**
+	 * Protocols tested by +cipherall and names of O-Saft options, that turn
+	 * them on and off
+	 */
+	private static final Map<Protocol.Type, String> CIPHER_SUITES_PROTOCOLS = new EnumMap<>(Protocol.Type.class);
+
+	static {
+		CIPHER_SUITES_PROTOCOLS.put(Protocol.Type.SSLv2, "sslv2");
+		CIPHER_SUITES_PROTOCOLS.put(Protocol.Type.SSLv3, "sslv3");
+		CIPHER_SUITES_PROTOCOLS.put(Protocol.Type.TLSv10, "tlsv1");
+		CIPHER_SUITES_PROTOCOLS.put(Protocol.Type.TLSv11, "tlsv11");
+		CIPHER_SUITES_PROTOCOLS.put(Protocol.Type.TLSv12, "tlsv12");
+	}
+
+	/**
+	 * Profile of target
+	 */
+	private final Profile profile;
+
+	/**
+	 * IANA codes of cipher suites, that are tested, or null, if all the
+	 * cipher suites are tested. Codes are taken from profile only once,
+	 * because register of cipher suites grows during scan.
+	 */
+	private final List<Integer> targetedCipherSuites;
+
+	/**
+	 * Sections, that will be run
+	 */
+	private final List<OSaftSection> sections = new ArrayList<>();
+
+	/**
+	 * Sections, that won't be run, together with reason
+	 */
+	private final Map<OSaftSection, String> skipped = new EnumMap<>(OSaftSection.class);
+
+	/**
+	 * Creates plan for the given profile
+	 *
+	 * @param profile profile of target
+	 */
+	public OSaftCommandPlanner(Profile profile) {
+		this.profile = profile;
+		this.targetedCipherSuites = profile.getTargetedCipherSuites();
+		ConfigurationRegister config = ConfigurationRegister.getInstance();
+
+		plan(OSaftSection.VULNERABILITIES, profile.isTestVulnerabilities(), false);
+		plan(OSaftSection.CIPHER_SUITES, isCipherSuitesRequired(), config.isCipherSuitesBackendNative());
+		plan(OSaftSection.CERTIFICATE, profile.isTestCertificate(), config.isCertificateBackendNative());
+		plan(OSaftSection.PROTOCOLS, isProtocolsRequired(), config.isProtocolsBackendNative());
+
+		if (isDerivedFromCipherSuites() && sections.remove(OSaftSection.PROTOCOLS)) {
+			skipped.put(OSaftSection.PROTOCOLS, "derived from cipher suites");
+		}
+	}
+
+	/**
+	 * Adds section to plan or remembers, why it was skipped
+	 *
+	 * @param section section of O-Saft output
+	 * @param required is section required by profile?
+	 * @param nativeBackend is section tested natively instead?
+	 */
+	private void plan(OSaftSection section, boolean required, boolean nativeBackend) {
+		if (!required) {
+			skipped.put(section, "no mustBe or mustNotBe rule");
+		} else if (nativeBackend) {
+			skipped.put(section, "tested natively");
+		} else {
+			sections.add(section);
+		}
+	}
+
+	/**
+	 * Has profile any cipher suite, that must or must not be supported?
+	 *
+	 * @return true, if cipher suites must be tested, false otherwise
+	 */
+	private boolean isCipherSuitesRequired() {
+		for (CipherSuite cipherSuite : profile.getCipherSuites()) {
+			if (cipherSuite.getMode().isMustBeOrMustNotBe()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Has profile any protocol, that must or must not be supported? TLS 1.3
+	 * isn't tested by O-Saft, so it doesn't count.
+	 *
+	 * @return true, if protocols must be tested, false otherwise
+	 */
+	private boolean isProtocolsRequired() {
+		for (Protocol protocol : profile.getProtocols()) {
+			if (protocol.getType() != Protocol.Type.TLSv13 && protocol.getMode().isMustBeOrMustNotBe()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Are protocols and checks, that depend only on accepted cipher suites,
+	 * derived from cipher suites? It's possible only when all the cipher
+	 * suites are tested by O-Saft, otherwise cipher suite, that wasn't
+	 * offered, would look like not accepted.
+	 *
+	 * @return true, if results are derived from cipher suites, false otherwise
+	 */
+	public boolean isDerivedFromCipherSuites() {
+		return sections.contains(OSaftSection.CIPHER_SUITES) && targetedCipherSuites == null;
+	}
+
+	/**
+	 * Returns IANA codes of cipher suites, that are tested. The same codes
+	 * must be used by all the backends during scan of target.
+	 *
+	 * @return codes of cipher suites or null, if all the cipher suites are
+	 * tested
+	 */
+	public List<Integer> getTargetedCipherSuites() {
+		return targetedCipherSuites == null ? null : new ArrayList<>(targetedCipherSuites);
+	}
+
+	/**
+	 * Returns sections, that will be run
+	 *
+	 * @return collection of sections
+	 */
+	public List<OSaftSection> getSections() {
+		return new ArrayList<>(sections);
+	}
+
+	/**
+	 * Returns commands (and their options) of the given section
+	 *
+	 * @param section section of O-Saft output
+	 * @return collection of commands
+	 */
+	public List<String> getCommands(OSaftSection section) {
+		List<String> commands = section.getCommands();
+
+		if (section == OSaftSection.CIPHER_SUITES && targetedCipherSuites != null && !targetedCipherSuites.isEmpty()) {
+			StringBuilder range = new StringBuilder();
+			for (Integer code : targetedCipherSuites) {
+				range.append(range.length() == 0 ? "--cipherrange=" : ",").append(String.format("0x0300%04X", code));
+			}
+			commands.add(range.toString()); //O-Saft notation of SSLv3/TLS cipher suites
+		}
+
+		if (section == OSaftSection.VULNERABILITIES && isDerivedFromCipherSuites()) {
+			commands.removeAll(DERIVED_COMMANDS);
+		}
+
+		return commands;
+	}
+
+	/**
+	 * Returns commands of cipher suites section, that test only the given
+	 * protocol
+	 *
+	 * @param protocol protocol, that will be tested
+	 * @return collection of commands
+	 */
+	public List<String> getCipherSuitesCommands(Protocol.Type protocol) {
+		List<String> commands = getCommands(OSaftSection.CIPHER_SUITES);
+		for (Map.Entry<Protocol.Type, String> entry : CIPHER_SUITES_PROTOCOLS.entrySet()) {
+			commands.add((entry.getKey() == protocol ? "--" : "--no-") + entry.getValue());
+		}
+
+		return commands;
+	}
+
+	/**
+	 * Returns protocols, that are tested by cipher suites section
+	 *
+	 * @return collection of protocols
+	 */
+	public List<Protocol.Type> getCipherSuitesProtocols() {
+		return new ArrayList<>(CIPHER_SUITES_PROTOCOLS.keySet());
+	}
+
+	/**
+	 * Is cipher suites section split into processes, each of them testing
+	 * only one protocol? Archived output is always replayed as a whole.
+	 *
+	 * @return true, if section is split, false otherwise
+	 */
+	public boolean isCipherSuitesSplit() {
+		ConfigurationRegister config = ConfigurationRegister.getInstance();
+		return sections.contains(OSaftSection.CIPHER_SUITES) && config.getOSaftCipherSuitesProcesses() > 1 && !config.isOSaftReplay();
+	}
+
+	/**
+	 * Returns options, that are passed to each O-Saft run
+	 *
+	 * @return collection of options
+	 */
+	public List<String> getOptions() {
+		return new ArrayList<>(OPTIONS);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder plan = new StringBuilder();
+		for (OSaftSection section : sections) {
+			plan.append(section).append(" ").append(getCommands(section));
+			if (section == OSaftSection.CIPHER_SUITES && targetedCipherSuites == null) {
+				plan.append(profile.isCipherSuitesInventory() ? " (inventory)" : " (all, code of some cipher suite in profile isn't known)");
+			}
+			if (section == OSaftSection.CIPHER_SUITES && isCipherSuitesSplit()) {
+				plan.append(" (split per protocol, at most ").append(ConfigurationRegister.getInstance().getOSaftCipherSuitesProcesses()).append(" processes)");
+			}
+			if (section == OSaftSection.VULNERABILITIES && isDerivedFromCipherSuites()) {
+				plan.append(" (").append(DERIVED_COMMANDS).append(" derived from cipher suites)");
+			}
+			plan.append(", ");
+		}
+
+		for (Map.Entry<OSaftSection, String> entry : skipped.entrySet()) {
+			plan.append(entry.getKey()).append(" skipped (").append(entry.getValue()).append("), ");
+		}
+
+		return plan.append("options ").append(OPTIONS).toString();
+	}
+}
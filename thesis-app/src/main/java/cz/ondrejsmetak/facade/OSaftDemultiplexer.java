@@ -0,0 +1,109 @@
+package cz.ondrejsmetak.facade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Splits output of O-Saft tool into sections, while the output is being read.
+ * O-Saft doesn't print any delimiter between commands, so each line is
+ * assigned to a section according to its header. Lines without known header
+ * (for example lines of certificate chain) belong to the same section as the
+ * previous line.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class OSaftDemultiplexer implements Consumer<String> {
+
+	/**
+	 * Known headers and sections, where they belong
+	 */
+	private static final Map<String, List<OSaftSection>> SECTIONS = new HashMap<>();
+
+	static {
+		register(OSaftSection.VULNERABILITIES, OSaftParser.BEAST_HEADER, OSaftParser.BREACH_HEADER, OSaftParser.CRIME_HEADER,
+				OSaftParser.DROWN_HEADER, OSaftParser.FREAK_HEADER, OSaftParser.HEARTBLEED_HEADER, OSaftParser.LOGJAM_HEADER,
+				OSaftParser.LUCKY_13_HEADER, OSaftParser.POODLE_HEADER, OSaftParser.RC4_HEADER, OSaftParser.SWEET_32_HEADER,
+				OSaftParser.SSLv2_NOT_SUPPORTED_HEADER, OSaftParser.SSLv3_NOT_SUPPORTED_HEADER, OSaftParser.PFS_HEADER,
+				OSaftParser.RANDOM_TLS_SESSION_TICKET_HEADER);
+
+		register(OSaftSection.CERTIFICATE, OSaftParser.CERTIFICATE_VALIDITY_HOSTNAME, OSaftParser.CERTIFICATE_VALIDITY_ALTERNATE_NAMES,
+				OSaftParser.CERTIFICATE_NOT_EXPIRED_HEADER, OSaftParser.CERTIFICATE_IS_VALID_HEADER, OSaftParser.CERTIFICATE_FINGERPRINT_NOT_MD5_HEADER,
+				OSaftParser.CERTIFICATE_PRIVATE_KEY_SHA2_HEADER, OSaftParser.CERTIFICATE_CHAIN, OSaftParser.CERTIFICATE_PUBLIC_KEY_SIZE_HEADER,
+				OSaftParser.CERTIFICATE_SIGNATURE_KEY_SIZE_HEADER, OSaftParser.CERTIFICATE_SIGNATURE_ALGORITHM_HEADER,
+				OSaftParser.CERTIFICATE_PUBLIC_KEY_ALGORITHM_HEADER);
+
+		register(OSaftSection.PROTOCOLS, OSaftParser.SSLv2_NOT_SUPPORTED_HEADER, OSaftParser.SSLv3_NOT_SUPPORTED_HEADER,
+				OSaftParser.TLS_1_HEADER, OSaftParser.TLS_1_1_HEADER, OSaftParser.TLS_1_2_HEADER, OSaftParser.TLS_1_3_HEADER);
+	}
+
+	/**
+	 * Receiver of lines together with their sections
+	 */
+	private final BiConsumer<List<OSaftSection>, String> sink;
+
+	/**
+	 * Sections of the last line with known header
+	 */
+	private List<OSaftSection> current;
+
+	/**
+	 * Creates new demultiplexer
+	 *
+	 * @param initial section for leading lines without known header
+	 * @param sink receiver of lines together with their sections
+	 */
+	public OSaftDemultiplexer(OSaftSection initial, BiConsumer<List<OSaftSection>, String> sink) {
+		this.current = Arrays.asList(initial);
+		this.sink = sink;
+	}
+
+	/**
+	 * Assigns given headers to the given section
+	 *
+	 * @param section section of O-Saft output
+	 * @param headers collection of headers
+	 */
+	private static void register(OSaftSection section, String... headers) {
+		for (String header : headers) {
+			if (!SECTIONS.containsKey(header)) {
+				SECTIONS.put(header, new ArrayList<>());
+			}
+			SECTIONS.get(header).add(section);
+		}
+	}
+
+	/**
+	 * Returns sections, where the given line belongs
+	 *
+	 * @param line line of O-Saft output
+	 * @return collection of sections or null, if line has no known header
+	 */
+	private static List<OSaftSection> getSections(String line) {
+		if (OSaftParser.isCipherSuiteLine(line)) {
+			return Arrays.asList(OSaftSection.CIPHER_SUITES);
+		}
+
+		int separator = line.indexOf('\t');
+		return SECTIONS.get(separator == -1 ? line : line.substring(0, separator));
+	}
+
+	/**
+	 * Assigns the given line to its section(s) and passes it to the receiver
+	 *
+	 * @param line line of O-Saft output
+	 */
+	@Override
+	public void accept(String line) {
+		List<OSaftSection> sections = getSections(line);
+		if (sections != null) {
+			current = sections;
+		}
+
+		sink.accept(current, line);
+	}
+}
@@ -1,13 +1,28 @@
 package cz.ondrejsmetak.facade;
 
 import cz.ondrejsmetak.ConfigurationRegister;
-import cz.ondrejsmetak.entity.Result;
+import cz.ondrejsmetak.entity.Protocol;
 import cz.ondrejsmetak.entity.Target;
+import cz.ondrejsmetak.tool.CommandOutput;
 import cz.ondrejsmetak.tool.Helper;
 import cz.ondrejsmetak.tool.Log;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * API for O-Saft tool
@@ -22,14 +37,51 @@ public class OSaftFacade extends BaseFacade {
 	private Target target;
 
 	/**
-	 * Raw data returned by O-Saft tool
+	 * Parser for (raw) data returned by O-Saft tool
 	 */
-	private List<String> data = new ArrayList<>();
+	private OSaftParser parser;
 
 	/**
-	 * Parser for (raw) data returned by O-Saft tool
+	 * Was any O-Saft process killed before it finished?
 	 */
-	private OSaftParser parser;
+	private volatile boolean timedOut = false;
+
+	/**
+	 * Sections, that produced output, because they were run, loaded from
+	 * cache or replayed
+	 */
+	private Set<OSaftSection> tested;
+
+	/**
+	 * Lines used by parser for each section, that will be stored in cache
+	 */
+	private Map<OSaftSection, List<String>> captured;
+
+	/**
+	 * Plan of O-Saft run
+	 */
+	private final OSaftCommandPlanner planner;
+
+	/**
+	 * Batch, which this target is a member of, or null, if target is scanned
+	 * alone
+	 */
+	private OSaftBatch batch;
+
+	/**
+	 * Transcript of output of batch, that belongs to this target
+	 */
+	private OSaftArchive.Transcript transcript;
+
+	/**
+	 * Sections of this target run by batch
+	 */
+	private List<OSaftSection> batchedSections;
+
+	/**
+	 * Did batch return any line of this target?
+	 */
+	private volatile boolean batchedOutput;
 
 	/**
 	 * Creates new O-Saft API for given target
@@ -38,55 +90,467 @@ public class OSaftFacade extends BaseFacade {
 	 */
 	public OSaftFacade(Target target) {
 		this.target = target;
+		this.planner = new OSaftCommandPlanner(target.getProfile());
 	}
 
 	/**
-	 * Run O-Saft tool and parse results
+	 * Run O-Saft tool and parse results. Output of O-Saft tool is parsed while
+	 * the tool is running, so it is never kept in memory as a whole. Sections,
+	 * that are cached and not expired, aren't run at all. Results, that plan
+	 * leaves to cipher suites, are derived from them at the end. Target, that
+	 * is a member of batch, is scanned together with the other members.
 	 */
 	public void runScan() {
-		data.clear();
-		data.addAll(getData());
-		parser = new OSaftParser(data);
+		if (batch != null) {
+			batch.runScan();
+			return;
+		}
+
+		List<OSaftSection> sections = start();
+		if (ConfigurationRegister.getInstance().isOSaftReplay()) {
+			replay(sections);
+		} else {
+			run(sections);
+		}
+		finish();
+	}
+
+	/**
+	 * Prepares scan of this target. Sections, that are cached and not
+	 * expired, are passed to parser right away.
+	 *
+	 * @return sections, that must be run (or replayed)
+	 */
+	List<OSaftSection> start() {
+		parser = new OSaftParser();
+		captured = new EnumMap<>(OSaftSection.class);
+		tested = Collections.synchronizedSet(EnumSet.noneOf(OSaftSection.class));
+		Log.infoln("Plan of O-Saft for " + target.getDestination() + ": " + planner);
+
+		if (ConfigurationRegister.getInstance().isOSaftReplay()) {
+			return planner.getSections();
+		}
+
+		List<OSaftSection> sections = new ArrayList<>();
+		for (OSaftSection section : planner.getSections()) {
+			int ttl = getCacheTtl(section);
+			List<String> cached = OSaftResultCache.getInstance().load(target.getDestination(), planner.getCommands(section), ttl);
+			if (cached != null) {
+				Log.infoln("Using cached results of " + section + " for " + target.getDestination());
+				cached.forEach(parser::parseLine);
+				tested.add(section);
+				continue;
+			}
+
+			sections.add(section);
+			if (ttl > 0) {
+				captured.put(section, Collections.synchronizedList(new ArrayList<>()));
+			}
+		}
+
+		return sections;
 	}
 
 	/**
-	 * Data returned by O-Saft tool
+	 * Finishes scan of this target. Results of complete scan are stored in
+	 * cache and results, that plan leaves to cipher suites, are derived.
+	 */
+	void finish() {
+		if (timedOut || !parser.isSuccesfulConnection()) {
+			return;
+		}
+
+		for (Map.Entry<OSaftSection, List<String>> entry : captured.entrySet()) {
+			OSaftResultCache.getInstance().store(target.getDestination(), planner.getCommands(entry.getKey()), entry.getValue());
+		}
+
+		if (planner.isDerivedFromCipherSuites()) {
+			parser.deriveFromCipherSuites();
+		}
+	}
+
+	/**
+	 * Runs O-Saft for the given sections
 	 *
-	 * @return collection of lines. Each line represents same line returned by
-	 * O-Saft tool
+	 * @param sections collection of sections
 	 */
-	private List<String> getData() {
-		if (data.isEmpty()) {
-			if (target.getProfile().isTestVulnerabilities()) {
-				data.addAll(doCmd(target.getDestination(), "+check"));
+	private void run(List<OSaftSection> sections) {
+		List<Runnable> jobs = new ArrayList<>();
+		if (planner.isCipherSuitesSplit() && sections.remove(OSaftSection.CIPHER_SUITES)) {
+			jobs.add(this::doCmdPerProtocol);
+		}
+
+		if (ConfigurationRegister.getInstance().isOSaftExecutionModeCombined()) {
+			if (!sections.isEmpty()) {
+				jobs.add(() -> doCmdCombined(sections));
 			}
+		} else {
+			for (OSaftSection section : sections) {
+				jobs.add(() -> doCmdSection(section));
+			}
+		}
+
+		runConcurrently(jobs, jobs.size());
+	}
+
+	/**
+	 * Starts scan of this target as a member of batch. Output of batch, that
+	 * belongs to this target, is passed to the returned receiver. Only lines
+	 * of the given sections are parsed, other sections of batch are cached
+	 * for this target.
+	 *
+	 * @param sections sections of this target, that must be run
+	 * @param batchSections sections run by batch, in order of their commands
+	 * @return receiver of lines of this target
+	 */
+	Consumer<String> startBatched(List<OSaftSection> sections, List<OSaftSection> batchSections) {
+		batchedSections = sections;
+		batchedOutput = false;
+		Consumer<String> consumer = new OSaftDemultiplexer(batchSections.get(0), (lineSections, line) -> {
+			if (!Collections.disjoint(sections, lineSections)) {
+				parseLine(lineSections, line);
+			}
+		});
+		consumer = consumer.andThen(line -> batchedOutput = true);
+
+		transcript = record(getArgs(getCommands(batchSections)));
+		return transcript == null ? consumer : transcript.andThen(consumer); //raw output is archived before parsing
+	}
+
+	/**
+	 * Finishes scan of this target as a member of batch
+	 *
+	 * @param complete true, if O-Saft finished, false if it was killed
+	 */
+	void finishBatched(boolean complete) {
+		if (transcript != null) {
+			transcript.finish(complete);
+			transcript = null;
+		}
+
+		if (!complete) {
+			timedOut = true;
+		} else if (batchedOutput) {
+			tested.addAll(batchedSections);
+		}
+	}
+
+	/**
+	 * Adds this target to the given batch
+	 *
+	 * @param batch batch of targets, that are scanned together
+	 */
+	void setBatch(OSaftBatch batch) {
+		this.batch = batch;
+	}
+
+	/**
+	 * Passes archived output of O-Saft to parser instead of running O-Saft.
+	 * For each command, the newest transcript, that contains it and that was
+	 * run with the same options, is used. Transcript of combined run can
+	 * contain more commands, so it's passed only once.
+	 *
+	 * @param sections collection of sections
+	 */
+	private void replay(List<OSaftSection> sections) {
+		Set<String> allowed = new HashSet<>(planner.getOptions());
+		for (OSaftSection section : sections) {
+			allowed.addAll(getOptions(planner.getCommands(section)));
+		}
+
+		LinkedHashSet<File> transcripts = new LinkedHashSet<>();
+		for (OSaftSection section : sections) {
+			List<String> required = getOptions(planner.getCommands(section));
+			required.addAll(planner.getOptions());
+			boolean found = true;
+
+			for (String command : planner.getCommands(section)) {
+				if (!command.startsWith("+")) {
+					continue; //option of command
+				}
+
+				File transcript = OSaftArchive.getInstance().findLatest(target.getDestination(), command, args -> {
+					List<String> options = getOptions(args);
+					return options.containsAll(required) && allowed.containsAll(options); //for example, the same range of cipher suites
+				});
+				if (transcript == null) {
+					Log.warningln(String.format("No archived output of O-Saft command %s with options %s for %s, its results are unknown", command, required, target.getDestination()));
+					found = false;
+				} else {
+					transcripts.add(transcript);
+				}
+			}
+
+			if (found) {
+				tested.add(section);
+			}
+		}
+
+		for (File transcript : transcripts) {
+			Log.infoln("Replaying archived output of O-Saft " + transcript.getName());
+			OSaftArchive.getInstance().replay(transcript, parser::parseLine);
+		}
+	}
+
+	/**
+	 * Returns options from the given arguments of O-Saft
+	 *
+	 * @param args arguments of O-Saft
+	 * @return collection of options
+	 */
+	private List<String> getOptions(List<String> args) {
+		List<String> options = new ArrayList<>();
+		for (String arg : args) {
+			if (arg.startsWith("--")) {
+				options.add(arg);
+			}
+		}
+
+		return options;
+	}
+
+	/**
+	 * Returns how long are cached results of the given section valid
+	 *
+	 * @param section section of O-Saft output
+	 * @return time in seconds, zero means, that section isn't cached
+	 */
+	private int getCacheTtl(OSaftSection section) {
+		ConfigurationRegister config = ConfigurationRegister.getInstance();
+		switch (section) {
+			case VULNERABILITIES:
+				return config.getCacheTtlVulnerabilities();
+			case CIPHER_SUITES:
+				return config.getCacheTtlCipherSuites();
+			case CERTIFICATE:
+				return config.getCacheTtlCertificate();
+			case PROTOCOLS:
+				return config.getCacheTtlProtocols();
+			default:
+				return 0;
+		}
+	}
 
-			if (target.getProfile().isTestCipherSuites()){
-				data.addAll(doCmd(target.getDestination(), "+cipherall"));
+	/**
+	 * Passes line of the given sections to parser and keeps it for cache, if
+	 * parser used it
+	 *
+	 * @param sections sections, which the line belongs to
+	 * @param line line of O-Saft output
+	 */
+	private void parseLine(List<OSaftSection> sections, String line) {
+		if (!parser.parseLine(line)) {
+			return;
+		}
+
+		for (OSaftSection section : sections) {
+			List<String> lines = captured.get(section);
+			if (lines != null) {
+				lines.add(line);
 			}
-			
-			if (target.getProfile().isTestCertificate()) {
-				data.addAll(doCmd(target.getDestination(), "+info"));
-				data.addAll(doCmd(target.getDestination(), "+chain"));
+		}
+	}
+
+	/**
+	 * Returns O-Saft commands, that produce the given sections
+	 *
+	 * @param sections collection of sections
+	 * @return collection of O-Saft commands
+	 */
+	List<String> getCommands(List<OSaftSection> sections) {
+		List<String> commands = new ArrayList<>();
+		for (OSaftSection section : sections) {
+			commands.addAll(planner.getCommands(section));
+		}
+
+		return commands;
+	}
+
+	/**
+	 * Runs all the O-Saft commands of the given sections in a single process.
+	 * This saves startup of Perl interpreter and connection to the target for
+	 * each command. Output is passed through demultiplexer, so each line is
+	 * still recognized as a part of its section.
+	 *
+	 * @param sections collection of sections
+	 */
+	private void doCmdCombined(List<OSaftSection> sections) {
+		doCmd(new OSaftDemultiplexer(sections.get(0), this::parseLine), sections, getArgs(getCommands(sections)));
+	}
+
+	/**
+	 * Runs the given section in its own process
+	 *
+	 * @param section section of O-Saft output
+	 */
+	private void doCmdSection(OSaftSection section) {
+		List<OSaftSection> lineSections = Collections.singletonList(section);
+		doCmd(line -> parseLine(lineSections, line), lineSections, getArgs(planner.getCommands(section)));
+	}
+
+	/**
+	 * Runs cipher suites section as more processes, each of them testing only
+	 * one protocol, because O-Saft tests protocols one after another. Cipher
+	 * suites of all protocols are merged and passed to parser (and archive)
+	 * as if they were returned by a single process, in order of protocols.
+	 * Other lines are thrown away, only failed connection is passed, when all
+	 * the processes failed to connect.
+	 */
+	private void doCmdPerProtocol() {
+		Map<Protocol.Type, List<String>> rows = new EnumMap<>(Protocol.Type.class);
+		Map<Protocol.Type, Boolean> complete = Collections.synchronizedMap(new EnumMap<>(Protocol.Type.class));
+		Set<Protocol.Type> unreachable = Collections.synchronizedSet(EnumSet.noneOf(Protocol.Type.class));
+		Set<Protocol.Type> answered = Collections.synchronizedSet(EnumSet.noneOf(Protocol.Type.class));
+		List<Runnable> jobs = new ArrayList<>();
+
+		for (Protocol.Type protocol : planner.getCipherSuitesProtocols()) {
+			List<String> lines = Collections.synchronizedList(new ArrayList<>());
+			rows.put(protocol, lines);
+			String[] args = getArgs(planner.getCipherSuitesCommands(protocol));
+			jobs.add(() -> complete.put(protocol, execute(line -> {
+				answered.add(protocol);
+				if (OSaftParser.isCipherSuiteLine(line)) {
+					lines.add(line);
+				} else if (line.contains(OSaftParser.CANT_MAKE_CONNECTION)) {
+					unreachable.add(protocol);
+				}
+			}, args)));
+		}
+
+		runConcurrently(jobs, ConfigurationRegister.getInstance().getOSaftCipherSuitesProcesses());
+
+		List<String> merged = new ArrayList<>();
+		rows.values().forEach(merged::addAll);
+		if (unreachable.containsAll(rows.keySet())) {
+			merged.add(OSaftParser.CANT_MAKE_CONNECTION + " " + target.getDestination());
+		}
+
+		List<OSaftSection> lineSections = Collections.singletonList(OSaftSection.CIPHER_SUITES);
+		Consumer<String> consumer = line -> parseLine(lineSections, line);
+		OSaftArchive.Transcript transcript = record(getArgs(planner.getCommands(OSaftSection.CIPHER_SUITES)));
+		if (transcript != null) {
+			consumer = transcript.andThen(consumer); //merged output is archived, so it can be replayed as a whole
+		}
+
+		merged.forEach(consumer);
+
+		if (transcript != null) {
+			transcript.finish(!complete.containsValue(false));
+		}
+
+		if (answered.containsAll(rows.keySet()) && !complete.containsValue(false)) {
+			tested.add(OSaftSection.CIPHER_SUITES);
+		}
+	}
+
+	/**
+	 * Runs the given jobs at the same time, because they are independent on
+	 * each other, and waits until all of them are finished
+	 *
+	 * @param jobs collection of jobs
+	 * @param limit maximum number of jobs running at the same time
+	 */
+	private void runConcurrently(List<Runnable> jobs, int limit) {
+		if (jobs.isEmpty()) {
+			return;
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(jobs.size(), limit));
+		try {
+			List<Future<?>> pending = new ArrayList<>();
+			for (Runnable job : jobs) {
+				pending.add(pool.submit(job));
 			}
 
-			if (target.getProfile().isTestProtocols()) {
-				data.addAll(doCmd(target.getDestination(), "+protocols"));
+			for (Future<?> done : pending) {
+				done.get();
 			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt(); //let the caller know
+		} catch (ExecutionException ex) {
+			Log.debugException(ex);
+		} finally {
+			pool.shutdownNow();
 		}
-		
-		//data.forEach(System.out::println);
-		
-		return data;
+	}
+
+	/**
+	 * Returns arguments of O-Saft run with the given commands
+	 *
+	 * @param commands commands (and their options)
+	 * @return collection of arguments
+	 */
+	String[] getArgs(List<String> commands) {
+		List<String> args = new ArrayList<>();
+		args.add(target.getDestination());
+		args.addAll(planner.getOptions());
+		args.addAll(commands);
+
+		return args.toArray(new String[args.size()]);
+	}
+
+	/**
+	 * Runs O-Saft tool with given parameters. Its output is archived, if it's
+	 * enabled.
+	 *
+	 * @param consumer receiver of lines returned by O-Saft tool
+	 * @param sections sections produced by the given arguments
+	 * @param args collection of arguments, that will be passed to O-Saft tool
+	 */
+	private void doCmd(Consumer<String> consumer, List<OSaftSection> sections, String... args) {
+		OSaftArchive.Transcript transcript = record(args);
+		if (transcript != null) {
+			consumer = transcript.andThen(consumer); //raw output is archived before parsing
+		}
+
+		AtomicBoolean answered = new AtomicBoolean();
+		boolean complete = execute(consumer.andThen(line -> answered.set(true)), args);
+
+		if (transcript != null) {
+			transcript.finish(complete);
+		}
+
+		if (complete && answered.get()) {
+			tested.addAll(sections); //O-Saft, that failed to start, returns nothing
+		}
+	}
+
+	/**
+	 * Starts new transcript of O-Saft run with the given arguments
+	 *
+	 * @param args collection of arguments
+	 * @return transcript or null, if output isn't archived
+	 */
+	private OSaftArchive.Transcript record(String... args) {
+		return ConfigurationRegister.getInstance().isOSaftArchive() ? OSaftArchive.getInstance().record(target.getDestination(), args) : null;
 	}
 
 	/**
 	 * Runs O-Saft tool with given parameters
 	 *
+	 * @param consumer receiver of lines returned by O-Saft tool
 	 * @param args collection of arguments, that will be passed to O-Saft tool
-	 * @return data returned by O-Saft tool
+	 * @return true, if O-Saft finished, false if it was killed
 	 */
-	private List<String> doCmd(String... args) {
+	private boolean execute(Consumer<String> consumer, String... args) {
+		CommandOutput output = execute(consumer, 1, args);
+		if (output.isTimedOut()) {
+			timedOut = true;
+		}
+
+		return !output.isTimedOut();
+	}
+
+	/**
+	 * Runs O-Saft tool with given parameters
+	 *
+	 * @param consumer receiver of lines returned by O-Saft tool
+	 * @param targets number of targets in arguments, run time limit is
+	 * multiplied by it
+	 * @param args collection of arguments, that will be passed to O-Saft tool
+	 * @return output of command
+	 */
+	static CommandOutput execute(Consumer<String> consumer, int targets, String... args) {
 		String[] rawArgs = new String[args.length + 3];
 		rawArgs[0] = ConfigurationRegister.getInstance().getOSaftFolderAbsolutePath() + "o-saft.pl"; //first arg is path to tool
 		rawArgs[1] = "--legacy=quick"; //second arg for easier parsing
@@ -98,7 +562,34 @@ public class OSaftFacade extends BaseFacade {
 		}
 
 		Log.infoln("Running O-Saft with args: " + Arrays.toString(rawArgs));
-		return Helper.doCmd(rawArgs); //run a command
+		ConfigurationRegister config = ConfigurationRegister.getInstance();
+		CommandOutput output = null;
+		if (config.getOSaftWorkers() > 0) {
+			output = OSaftWorkerPool.getInstance().run(consumer, config.getOSaftTimeout() * targets, config.getOSaftStallTimeout(),
+					Arrays.copyOfRange(rawArgs, 1, rawArgs.length)); //worker knows path to tool
+		}
+		if (output == null) {
+			output = Helper.doCmd(consumer, config.getOSaftTimeout() * targets, config.getOSaftStallTimeout(), rawArgs); //run a command
+		}
+
+		if (output.isTimedOut()) {
+			Log.warningln(String.format("O-Saft with args %s was killed (%s), its results are incomplete", Arrays.toString(args), output.getTimeoutReason()));
+		}
+
+		return output;
+	}
+
+	Target getTarget() {
+		return target;
+	}
+
+	/**
+	 * Returns plan of O-Saft run, which is made once, when facade is created
+	 *
+	 * @return plan of O-Saft run
+	 */
+	public OSaftCommandPlanner getPlanner() {
+		return planner;
 	}
 
 	/**
@@ -109,4 +600,26 @@ public class OSaftFacade extends BaseFacade {
 	public OSaftParser getParser() {
 		return parser;
 	}
+
+	/**
+	 * Was any O-Saft process killed, because it took too long? In such case,
+	 * parser has only partial data and results, that are missing, are unknown.
+	 *
+	 * @return true, if any O-Saft process was killed, false otherwise
+	 */
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+
+	/**
+	 * Did the given section produce output? It didn't, when O-Saft failed to
+	 * start or was killed or when archived output is missing. In such case,
+	 * results of the section are unknown.
+	 *
+	 * @param section section of O-Saft output
+	 * @return true, if section was run, loaded from cache or replayed
+	 */
+	public boolean isTested(OSaftSection section) {
+		return tested != null && tested.contains(section);
+	}
 }
@@ -1,15 +1,20 @@
 package cz.ondrejsmetak.facade;
 
+import cz.ondrejsmetak.CipherSuiteRegister;
 import cz.ondrejsmetak.ConfigurationRegister;
-import cz.ondrejsmetak.entity.CipherSuite;
+import cz.ondrejsmetak.entity.CipherSuiteSet;
 import cz.ondrejsmetak.entity.Protocol;
 import cz.ondrejsmetak.entity.Result;
 import cz.ondrejsmetak.tool.Helper;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -17,19 +22,20 @@ import java.util.regex.Pattern;
  *
  * @author Ondřej Směták <posta@ondrejsmetak.cz>
  */
-public class OSaftParser {
-
-	public enum Algorithm {
-		RSA, ECDSA, OTHER
-	}
-
-	private List<String> data;
+public class OSaftParser implements CertificateChecks {
 
 	private static final String YES = "yes";
 	private static final String NO = "no";
 	private static final String NOTE_REGEX = "(yes|no) (\\(.*\\))";
 	private static final String NOT_AVAILABLE = "N/A";
 
+	/**
+	 * Results of comparison of given hostname and names in certificate
+	 */
+	private static final Pattern HOSTNAME_MATCHES_CN = Pattern.compile("Given hostname '(.+)' matches CN '(.+)' in certificate");
+	private static final Pattern HOSTNAME_MATCHES_ALTERNATE_NAME = Pattern.compile("Given hostname '(.+)' matches alternate name '(.+)' in certificate");
+	private static final Pattern HOSTNAME_NOT_MATCHES_CN = Pattern.compile("Given hostname '(.+)' does not match CN '(.+)' in certificate");
+
 	/**
 	 * Vulnerabilities
 	 */
@@ -119,7 +125,8 @@ public class OSaftParser {
 	/**
 	 * Cipher suites
 	 */
-	private static final List<CipherSuite> supportedCipherSuites = new ArrayList<>();
+	private final CipherSuiteSet supportedCipherSuites = new CipherSuiteSet();
+	private final List<OSaftCipherSuiteRow> cipherSuiteRows = new ArrayList<>();
 
 	/**
 	 * Supported protocols
@@ -138,124 +145,248 @@ public class OSaftParser {
 	private boolean isReadingCertificateChain = false; //are we currently parsing certificate chain
 	private Integer certificateChainDepth = 0;
 
+	/**
+	 * Handlers of lines with known header, indexed by the header. Handler gets
+	 * value of the line (text after the header) or null, if line has no value.
+	 */
+	private static final Map<String, BiConsumer<OSaftParser, String>> HANDLERS = new HashMap<>();
+
+	static {
+		/**
+		 * Vulnerabilities
+		 */
+		register(BEAST_HEADER, (parser, value) -> parser.beast = parser.parseResult(value, YES, parser.beast));
+		register(BREACH_HEADER, (parser, value) -> parser.breach = parser.parseResult(value, YES, parser.breach));
+		register(CRIME_HEADER, (parser, value) -> parser.crime = parser.parseResult(value, YES, parser.crime));
+		register(DROWN_HEADER, (parser, value) -> parser.drown = parser.parseResult(value, YES, parser.drown));
+		register(FREAK_HEADER, (parser, value) -> parser.freak = parser.parseResult(value, YES, parser.freak));
+		register(HEARTBLEED_HEADER, (parser, value) -> parser.heartbleed = parser.parseResult(value, YES, parser.heartbleed));
+		register(LOGJAM_HEADER, (parser, value) -> parser.logjam = parser.parseResult(value, YES, parser.logjam));
+		register(LUCKY_13_HEADER, (parser, value) -> parser.lucky13 = parser.parseResult(value, YES, parser.lucky13));
+		register(POODLE_HEADER, (parser, value) -> parser.poodle = parser.parseResult(value, YES, parser.poodle));
+		register(RC4_HEADER, (parser, value) -> parser.rc4 = parser.parseResult(value, YES, parser.rc4));
+		register(SWEET_32_HEADER, (parser, value) -> parser.sweet32 = parser.parseResult(value, YES, parser.sweet32));
+		register(SSLv2_NOT_SUPPORTED_HEADER, (parser, value) -> parser.sslv2NotSupported = parser.parseResult(value, YES, parser.sslv2NotSupported));
+		register(SSLv3_NOT_SUPPORTED_HEADER, (parser, value) -> parser.sslv3NotSupported = parser.parseResult(value, YES, parser.sslv3NotSupported));
+		register(PFS_HEADER, (parser, value) -> parser.pfs = parser.parseResult(value, YES, parser.pfs));
+		register(RANDOM_TLS_SESSION_TICKET_HEADER, (parser, value) -> parser.randomTlsSessionTicket = parser.parseResult(value, YES, parser.randomTlsSessionTicket));
+
+		/**
+		 * Certificate
+		 */
+		register(CERTIFICATE_NOT_EXPIRED_HEADER, (parser, value) -> parser.certificateNotExpired = parser.parseResult(value, YES, parser.certificateNotExpired));
+		register(CERTIFICATE_IS_VALID_HEADER, (parser, value) -> parser.certificateIsValid = parser.parseResult(value, YES, parser.certificateIsValid));
+		register(CERTIFICATE_FINGERPRINT_NOT_MD5_HEADER, (parser, value) -> parser.certificateFingerprintNotMd5 = parser.parseResult(value, YES, parser.certificateFingerprintNotMd5));
+		register(CERTIFICATE_PRIVATE_KEY_SHA2_HEADER, (parser, value) -> parser.certificatePrivateKeySha2 = parser.parseResult(value, YES, parser.certificatePrivateKeySha2));
+		register(CERTIFICATE_PUBLIC_KEY_SIZE_HEADER, (parser, value) -> parser.certificatePublicKeySize = parser.parseCertificateKeySize(value));
+		register(CERTIFICATE_PUBLIC_KEY_ALGORITHM_HEADER, (parser, value) -> parser.certificatePublicKeyAlgorithm = parser.parseAlgorithm(value, parser.certificatePublicKeyAlgorithm));
+		register(CERTIFICATE_SIGNATURE_KEY_SIZE_HEADER, (parser, value) -> parser.certificateSignatureKeySize = parser.parseCertificateKeySize(value));
+		register(CERTIFICATE_SIGNATURE_ALGORITHM_HEADER, (parser, value) -> parser.certificateSignatureAlgorithm = parser.parseAlgorithm(value, parser.certificateSignatureAlgorithm));
+		register(CERTIFICATE_VALIDITY_HOSTNAME, (parser, value) -> {
+			if (parser.tempValidityHostname.isEmpty()) {
+				parser.tempValidityHostname = value == null ? "" : value;
+				parser.parseCertificateHostnameMatch();
+			}
+		});
+		register(CERTIFICATE_VALIDITY_ALTERNATE_NAMES, (parser, value) -> {
+			if (parser.tempValidityAlternateNames.isEmpty()) {
+				parser.tempValidityAlternateNames = value == null ? "" : value;
+				parser.parseCertificateHostnameMatch();
+			}
+		});
+		register(CERTIFICATE_CHAIN, (parser, value) -> {
+			parser.isReadingCertificateChain = true; //we just started parsing certificate chain
+			parser.certificateChainDepth = 0; //so current depth is zero
+		});
+
+		/**
+		 * Protocols
+		 */
+		register(SSLv2_NOT_SUPPORTED_HEADER, (parser, value) -> parser.protocolSslv2 = parser.parseResult(value, YES, parser.protocolSslv2));
+		register(SSLv3_NOT_SUPPORTED_HEADER, (parser, value) -> parser.protocolSslv3 = parser.parseResult(value, YES, parser.protocolSslv3));
+		register(TLS_1_HEADER, (parser, value) -> parser.protocolTlsv10 = parser.parseResult(value, YES, parser.protocolTlsv10));
+		register(TLS_1_1_HEADER, (parser, value) -> parser.protocolTlsv11 = parser.parseResult(value, YES, parser.protocolTlsv11));
+		register(TLS_1_2_HEADER, (parser, value) -> parser.protocolTlsv12 = parser.parseResult(value, YES, parser.protocolTlsv12));
+
+		//TLS 1.3 is draft
+		//register(TLS_1_3_HEADER, (parser, value) -> parser.protocolTlsv13 = parser.parseResult(value, YES, parser.protocolTlsv13));
+	}
+
+	/**
+	 * Creates parser without any data. Data are passed line by line using
+	 * {@link #parseLine(java.lang.String)}.
+	 */
+	public OSaftParser() {
+		//nothing to do
+	}
+
 	/**
 	 * Konstruktor
 	 *
 	 * @param data
 	 */
 	public OSaftParser(List<String> data) {
-		this.data = data;
-
-		parseData();
-	}
-
-	private void parseData() {
 		for (String line : data) {
-			parseUnsuccessfulConnection(line);
-			parseVulnerabilities(line);
-			parseCertificate(line);
-			parseCipherSuites(line);
-			parseProtocols(line);
+			parseLine(line);
 		}
 	}
 
-	private void parseUnsuccessfulConnection(String line) {
+	/**
+	 * Adds handler of lines with the given header. One header can have more
+	 * handlers, they are called in the order of registration.
+	 *
+	 * @param header header of line
+	 * @param handler handler of line
+	 */
+	private static void register(String header, BiConsumer<OSaftParser, String> handler) {
+		HANDLERS.merge(header, handler, BiConsumer::andThen);
+	}
+
+	/**
+	 * Parses one line of O-Saft output. Lines can be passed while O-Saft is
+	 * still running, so they don't have to be stored. Lines of more O-Saft
+	 * processes can be passed at the same time.
+	 *
+	 * Line is split only once, at the first tab, and its header is looked up
+	 * among known headers. Line without known header costs just this lookup
+	 * and few cheap checks.
+	 *
+	 * @param line line of O-Saft output
+	 * @return true, if line was used for some result, false if it was ignored
+	 */
+	public synchronized boolean parseLine(String line) {
 		if (line.contains(CANT_MAKE_CONNECTION)) {
 			succesfulConnection = false;
 		}
+
+		int separator = line.indexOf('\t');
+		String header = separator == -1 ? line : line.substring(0, separator);
+		BiConsumer<OSaftParser, String> handler = HANDLERS.get(header);
+
+		boolean used;
+		if (handler != null) {
+			handler.accept(this, separator == -1 ? null : parseValue(line, separator));
+			used = true;
+		} else {
+			used = parseCipherSuites(line);
+		}
+
+		if (isReadingCertificateChain && !header.equals(CERTIFICATE_CHAIN)) {
+			used |= parseCertificateSelfSigned(line);
+		}
+
+		return used;
 	}
 
-	private void parseProtocols(String line) {
-		this.protocolSslv2 = parseResult(line, SSLv2_NOT_SUPPORTED_HEADER, YES, this.protocolSslv2);
-		this.protocolSslv3 = parseResult(line, SSLv3_NOT_SUPPORTED_HEADER, YES, this.protocolSslv3);
-		this.protocolTlsv10 = parseResult(line, TLS_1_HEADER, YES, this.protocolTlsv10);
-		this.protocolTlsv11 = parseResult(line, TLS_1_1_HEADER, YES, this.protocolTlsv11);
-		this.protocolTlsv12 = parseResult(line, TLS_1_2_HEADER, YES, this.protocolTlsv12);
+	private boolean parseCipherSuites(String line) {
+		OSaftCipherSuiteRow row = OSaftCipherSuiteRow.parse(line);
+		if (row != null) {
+			CipherSuiteRegister.getInstance().register(row.getName(), row.getCode()); //O-Saft knows code of cipher suite
+			supportedCipherSuites.add(row.getName());
+			cipherSuiteRows.add(row);
+			return true;
+		}
 
-		//TLS 1.3 is draft
-		//this.protocolTlsv13 = parseResult(line, TLS_1_3_HEADER, YES, this.protocolSslv3);
+		return false;
 	}
 
-	private void parseCipherSuites(String line) {
-		String[] pieces = line.split(", ");
-		/**
-		 * Cipher has exactly eight items in array and fifth item is hex code defined in RFC
-		 */
-		if (pieces.length == 8 && pieces[5].trim().startsWith("0x")) {
-			String name = pieces[6].trim();
-			supportedCipherSuites.add(new CipherSuite(name));
+	/**
+	 * Checks, if the given line describes supported cipher suite
+	 *
+	 * @param line line of O-Saft output
+	 * @return true, if line describes supported cipher suite, false otherwise
+	 */
+	static boolean isCipherSuiteLine(String line) {
+		return OSaftCipherSuiteRow.parse(line) != null;
+	}
+
+	/**
+	 * Computes results of protocols and of vulnerabilities, that depend only
+	 * on accepted cipher suites (RC4, Sweet32, SSLv2 and SSLv3 support), from
+	 * cipher suites section. It's correct only when all the cipher suites were
+	 * tested, because cipher suite, that is missing, is taken as not accepted.
+	 * Results, that were already found by O-Saft itself, are kept.
+	 */
+	public synchronized void deriveFromCipherSuites() {
+		Set<Protocol.Type> protocols = EnumSet.noneOf(Protocol.Type.class);
+		List<String> rc4CipherSuites = new ArrayList<>();
+		List<String> block64BitCipherSuites = new ArrayList<>();
+
+		for (OSaftCipherSuiteRow row : cipherSuiteRows) {
+			if (row.getProtocol() != null) {
+				protocols.add(row.getProtocol());
+			}
+			if (row.isRc4()) {
+				rc4CipherSuites.add(row.toString());
+			}
+			if (row.isBlock64Bit()) {
+				block64BitCipherSuites.add(row.toString());
+			}
 		}
+
+		protocolSslv2 = deriveResult(protocolSslv2, !protocols.contains(Protocol.Type.SSLv2), null);
+		protocolSslv3 = deriveResult(protocolSslv3, !protocols.contains(Protocol.Type.SSLv3), null);
+		protocolTlsv10 = deriveResult(protocolTlsv10, protocols.contains(Protocol.Type.TLSv10), null);
+		protocolTlsv11 = deriveResult(protocolTlsv11, protocols.contains(Protocol.Type.TLSv11), null);
+		protocolTlsv12 = deriveResult(protocolTlsv12, protocols.contains(Protocol.Type.TLSv12), null);
+		sslv2NotSupported = deriveResult(sslv2NotSupported, !protocols.contains(Protocol.Type.SSLv2), null);
+		sslv3NotSupported = deriveResult(sslv3NotSupported, !protocols.contains(Protocol.Type.SSLv3), null);
+		rc4 = deriveResult(rc4, rc4CipherSuites.isEmpty(), rc4CipherSuites);
+		sweet32 = deriveResult(sweet32, block64BitCipherSuites.isEmpty(), block64BitCipherSuites);
 	}
 
-	private void parseCertificate(String line) {
-		this.certificateNotExpired = parseResult(line, CERTIFICATE_NOT_EXPIRED_HEADER, YES, this.certificateNotExpired);
-		this.certificateIsValid = parseResult(line, CERTIFICATE_IS_VALID_HEADER, YES, this.certificateIsValid);
-		this.certificateFingerprintNotMd5 = parseResult(line, CERTIFICATE_FINGERPRINT_NOT_MD5_HEADER, YES, this.certificateFingerprintNotMd5);
-		this.certificatePrivateKeySha2 = parseResult(line, CERTIFICATE_PRIVATE_KEY_SHA2_HEADER, YES, this.certificatePrivateKeySha2);
+	/**
+	 * Returns result derived from cipher suites, unless result is already
+	 * known
+	 *
+	 * @param previousResult result found so far
+	 * @param safe is derived result safe?
+	 * @param causes cipher suites, that make result vulnerable, or null
+	 * @return result
+	 */
+	private Result deriveResult(Result previousResult, boolean safe, List<String> causes) {
+		if (!previousResult.isUnknown()) {
+			return previousResult;
+		}
+
+		if (safe) {
+			return Result.getSafe();
+		}
 
-		/**
-		 * Following tests are not straightforward
-		 */
-		parseCertificateKeySize(line);
-		parseCertificateHostnameMatch(line);
-		parseCertificateSelfSigned(line);
+		return causes == null ? Result.getVulnerable() : Result.getVulnerable(String.join(", ", causes));
 	}
 
-	private void parseCertificateSelfSigned(String line) {
+	private boolean parseCertificateSelfSigned(String line) {
 		/**
 		 * There is (in my opinion) bug
 		 * https://github.com/OWASP/O-Saft/issues/65 so we can't use result of
 		 * self-signed test directly from O-Saft. Instead, we will check
-		 * certificate chain.
+		 * certificate chain, that follows after its header.
 		 */
 		boolean isCertificateChainLine = line.contains("s:/") || line.contains("i:/");
 
-		if (isHeader(line, CERTIFICATE_CHAIN)) {
-			isReadingCertificateChain = true; //we just started parsing certificate chain
-			certificateChainDepth = 0; //so current depth is zero
-			return; //nothing to do now, we must read following lines (in future iterations)
-		}
-
-		if (isReadingCertificateChain && isCertificateChainLine) {
+		if (isCertificateChainLine) {
 			String chain = line.trim();
 			if (!chain.isEmpty() && Character.isDigit(chain.charAt(0))) {
 				certificateChainDepth = Math.max(certificateChainDepth, Character.getNumericValue(chain.charAt(0)));
 				this.certificateNotSelfSigned = certificateChainDepth > 0 ? Result.getSafe() : Result.getVulnerable();
+				return true;
 			}
 		}
-	}
 
-	private void parseCertificateKeySize(String line) {
-		/**
-		 * Public key
-		 */
-		certificatePublicKeySize = doParseCertificateKeySize(line, CERTIFICATE_PUBLIC_KEY_SIZE_HEADER, certificatePublicKeySize);
-		certificatePublicKeyAlgorithm = doParseAlgorithm(line, CERTIFICATE_PUBLIC_KEY_ALGORITHM_HEADER, certificatePublicKeyAlgorithm);
-
-		/**
-		 * Signature key
-		 */
-		certificateSignatureKeySize = doParseCertificateKeySize(line, CERTIFICATE_SIGNATURE_KEY_SIZE_HEADER, certificateSignatureKeySize);
-		certificateSignatureAlgorithm = doParseAlgorithm(line, CERTIFICATE_SIGNATURE_ALGORITHM_HEADER, certificateSignatureAlgorithm);
+		return false;
 	}
 
-	private void parseCertificateHostnameMatch(String line) {
-		if (isHeader(line, CERTIFICATE_VALIDITY_HOSTNAME) && tempValidityHostname.isEmpty()) {
-			tempValidityHostname = parseValue(line, CERTIFICATE_VALIDITY_HOSTNAME);
-			return;
-		}
-
-		if (isHeader(line, CERTIFICATE_VALIDITY_ALTERNATE_NAMES) && tempValidityAlternateNames.isEmpty()) {
-			tempValidityAlternateNames = parseValue(line, CERTIFICATE_VALIDITY_ALTERNATE_NAMES);
-			return;
-		}
-
-		Pattern pattern;
+	/**
+	 * Compares given hostname with names in certificate. It is done only when
+	 * "Validity Hostname" or "Validity Alternate Names" value is captured, so
+	 * at most twice for the whole output.
+	 */
+	private void parseCertificateHostnameMatch() {
 		Matcher matcher;
 
 		//1) Check, if hostname matches CN in certificate
-		pattern = Pattern.compile("Given hostname '(.+)' matches CN '(.+)' in certificate");
-		matcher = pattern.matcher(tempValidityHostname);
+		matcher = HOSTNAME_MATCHES_CN.matcher(tempValidityHostname);
 		if (matcher.matches()) {
 			certificateHostnameMatch = Result.getSafe();
 			return;
@@ -263,16 +394,14 @@ public class OSaftParser {
 
 		//2) Check, if some hostname matches some alternate name in certificate
 		//2) It also covers check for wildcard certificate
-		pattern = Pattern.compile("Given hostname '(.+)' matches alternate name '(.+)' in certificate");
-		matcher = pattern.matcher(tempValidityAlternateNames);
+		matcher = HOSTNAME_MATCHES_ALTERNATE_NAME.matcher(tempValidityAlternateNames);
 		if (matcher.matches()) {
 			certificateHostnameMatch = Result.getSafe();
 			return;
 		}
 
 		//3) If we get here, it means vulnerable result
-		pattern = Pattern.compile("Given hostname '(.+)' does not match CN '(.+)' in certificate");
-		matcher = pattern.matcher(tempValidityHostname);
+		matcher = HOSTNAME_NOT_MATCHES_CN.matcher(tempValidityHostname);
 		if (matcher.matches()) {
 			String givenHostname = matcher.group(1);
 			String commonName = matcher.group(2);
@@ -282,10 +411,8 @@ public class OSaftParser {
 		}
 	}
 
-	private Algorithm doParseAlgorithm(String line, String header, Algorithm previousAlgorithm) {
-		if (isHeader(line, header)) {
-			String value = parseValue(line, header);
-
+	private Algorithm parseAlgorithm(String value, Algorithm previousAlgorithm) {
+		if (value != null) {
 			if (value.toLowerCase().contains("rsa")) {
 				return Algorithm.RSA;
 			}
@@ -298,80 +425,57 @@ public class OSaftParser {
 		return previousAlgorithm;
 	}
 
-	private int doParseCertificateKeySize(String line, String header, int previousSize) {
-		if (isHeader(line, header)) {
-			String value = parseValue(line, header);
-			value = value.replace(" bits", "");
+	private int parseCertificateKeySize(String value) {
+		if (value == null) {
+			return -1;
+		}
+
+		value = value.replace(" bits", "");
 
-			if (!Helper.isInteger(value)) {
-				return -1;
-			} else {
-				return Integer.parseInt(value);
-			}
+		if (!Helper.isInteger(value)) {
+			return -1;
+		} else {
+			return Integer.parseInt(value);
 		}
+	}
 
-		return previousSize;
-	}
-
-	private void parseVulnerabilities(String line) {
-		this.beast = parseResult(line, BEAST_HEADER, YES, this.beast);
-		this.breach = parseResult(line, BREACH_HEADER, YES, this.breach);
-		this.crime = parseResult(line, CRIME_HEADER, YES, this.crime);
-		this.drown = parseResult(line, DROWN_HEADER, YES, this.drown);
-		this.freak = parseResult(line, FREAK_HEADER, YES, this.freak);
-		this.heartbleed = parseResult(line, HEARTBLEED_HEADER, YES, this.heartbleed);
-		this.logjam = parseResult(line, LOGJAM_HEADER, YES, this.logjam);
-		this.lucky13 = parseResult(line, LUCKY_13_HEADER, YES, this.lucky13);
-		this.poodle = parseResult(line, POODLE_HEADER, YES, this.poodle);
-		this.rc4 = parseResult(line, RC4_HEADER, YES, this.rc4);
-		this.sweet32 = parseResult(line, SWEET_32_HEADER, YES, this.sweet32);
-		this.sslv2NotSupported = parseResult(line, SSLv2_NOT_SUPPORTED_HEADER, YES, this.sslv2NotSupported);
-		this.sslv3NotSupported = parseResult(line, SSLv3_NOT_SUPPORTED_HEADER, YES, this.sslv3NotSupported);
-		this.pfs = parseResult(line, PFS_HEADER, YES, this.pfs);
-		this.randomTlsSessionTicket = parseResult(line, RANDOM_TLS_SESSION_TICKET_HEADER, YES, this.randomTlsSessionTicket);
-	}
-
-	private String parseValue(String line, String header) {
-		if (line.startsWith(header)) {
-			String[] pieces = line.split("\t");
-
-			if (pieces.length >= 2) {
-				return pieces[1];
+	/**
+	 * Returns value of the line, i.e. text between the first and the second
+	 * tab. Line without any text after the first tab has no value.
+	 *
+	 * @param line line of O-Saft output
+	 * @param separator position of the first tab
+	 * @return value or null, if line has no value
+	 */
+	private String parseValue(String line, int separator) {
+		int start = separator + 1;
+		int end = line.indexOf('\t', start);
+
+		for (int i = start; i < line.length(); i++) {
+			if (line.charAt(i) != '\t') {
+				return end == -1 ? line.substring(start) : line.substring(start, end);
 			}
 		}
 
-		return "";
+		return null;
 	}
 
 	/**
 	 * Na řádku je rovnou uvedeno ano/ne, jestli je daný test safe nebo ne
 	 *
-	 * @param line
-	 * @param header
+	 * @param value value of line or null
 	 * @param safeResult
 	 * @param previousResult
 	 * @return
 	 */
-	private Result parseResult(String line, String header, String safeResult, Result previousResult) {
-		if (isHeader(line, header)) {
-			String[] pieces = line.split("\t");
-			if (pieces.length >= 2) {
-				return parseBoolean(pieces[1], safeResult);
-			}
+	private Result parseResult(String value, String safeResult, Result previousResult) {
+		if (value != null) {
+			return parseBoolean(value, safeResult);
 		}
 
 		return previousResult;
 	}
 
-	private boolean isHeader(String line, String header) {
-		String[] pieces = line.split("\t");
-		if (pieces.length >= 1) {
-			return pieces[0].equals(header);
-		}
-
-		return false;
-	}
-
 	private String parseNote(String line) {
 		String tmp = line;
 		tmp = tmp.replace(YES + " ", "");
@@ -467,50 +571,64 @@ public class OSaftParser {
 		return randomTlsSessionTicket;
 	}
 
+	@Override
 	public Result getCertificateHostnameMatch() {
 		return certificateHostnameMatch;
 	}
 
+	@Override
 	public Result getCertificateNotExpired() {
 		return certificateNotExpired;
 	}
 
+	@Override
 	public Result getCertificateIsValid() {
 		return certificateIsValid;
 	}
 
+	@Override
 	public Result getCertificateFingerprintNotMd5() {
 		return certificateFingerprintNotMd5;
 	}
 
+	@Override
 	public Result getCertificatePrivateKeySha2() {
 		return certificatePrivateKeySha2;
 	}
 
+	@Override
 	public Result getCertificateNotSelfSigned() {
 		return certificateNotSelfSigned;
 	}
 
+	@Override
 	public int getCertificatePublicKeySize() {
 		return certificatePublicKeySize;
 	}
 
+	@Override
 	public int getCertificateSignatureKeySize() {
 		return certificateSignatureKeySize;
 	}
 
+	@Override
 	public Algorithm getCertificatePublicKeyAlgorithm() {
 		return certificatePublicKeyAlgorithm;
 	}
 
+	@Override
 	public Algorithm getCertificateSignatureAlgorithm() {
 		return certificateSignatureAlgorithm;
 	}
 
-	public List<CipherSuite> getSupportedCipherSuites() {
+	public CipherSuiteSet getSupportedCipherSuites() {
 		return supportedCipherSuites;
 	}
 
+	public synchronized List<OSaftCipherSuiteRow> getCipherSuiteRows() {
+		return new ArrayList<>(cipherSuiteRows);
+	}
+
 	public Result getProtocolSslv2() {
 		return protocolSslv2;
 	}
@@ -0,0 +1,140 @@
+package cz.ondrejsmetak.facade;
+
+import cz.ondrejsmetak.tool.Helper;
+import cz.ondrejsmetak.tool.Log;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent cache of O-Saft results. For each destination and section
+ * (identified by its commands, which change with profile), only lines of
+ * output, that were used by parser, are stored. When they are passed to parser
+ * again, parser ends up in the same state as after running O-Saft, so cached
+ * section doesn't have to be run.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class OSaftResultCache {
+
+	/**
+	 * Folder with cached results, in working directory
+	 */
+	private static final String FOLDER = "cache";
+
+	/**
+	 * Instance of this class
+	 */
+	private static OSaftResultCache instance = null;
+
+	/**
+	 * Folder with cached results
+	 */
+	private final File folder;
+
+	protected OSaftResultCache() {
+		this.folder = new File(Helper.getWorkingDirectory() + File.separator + FOLDER);
+	}
+
+	/**
+	 * Returns a instance of this class
+	 *
+	 * @return instance of this class
+	 */
+	public static synchronized OSaftResultCache getInstance() {
+		if (instance == null) {
+			instance = new OSaftResultCache();
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns cached lines of the given section
+	 *
+	 * @param destination destination of target
+	 * @param commands commands of section
+	 * @param ttl maximum age of cached lines in seconds
+	 * @return cached lines or null, if lines aren't cached or they are too old
+	 */
+	public List<String> load(String destination, List<String> commands, int ttl) {
+		File file = getFile(destination, commands);
+		if (ttl <= 0 || !file.isFile()) {
+			return null;
+		}
+
+		if (System.currentTimeMillis() - file.lastModified() > ttl * 1000L) {
+			return null; //expired
+		}
+
+		try {
+			List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+			if (lines.isEmpty() || !lines.get(0).equals(destination)) {
+				return null; //first line is destination, to be sure
+			}
+
+			return new ArrayList<>(lines.subList(1, lines.size()));
+		} catch (IOException ex) {
+			Log.debugException(ex);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores lines of the given section. File is written at once, so partially
+	 * written file is never read.
+	 *
+	 * @param destination destination of target
+	 * @param commands commands of section
+	 * @param lines lines, that were used by parser
+	 */
+	public void store(String destination, List<String> commands, List<String> lines) {
+		List<String> content = new ArrayList<>();
+		content.add(destination);
+		content.addAll(lines);
+
+		try {
+			Files.createDirectories(folder.toPath());
+			Path temporary = Files.createTempFile(folder.toPath(), "section", ".tmp");
+			Files.write(temporary, content, StandardCharsets.UTF_8);
+			Files.move(temporary, getFile(destination, commands).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException ex) {
+			Log.debugException(ex);
+		}
+	}
+
+	/**
+	 * Returns file with cached lines of the given section
+	 *
+	 * @param destination destination of target
+	 * @param commands commands of section
+	 * @return file, which may not exist
+	 */
+	private File getFile(String destination, List<String> commands) {
+		return new File(folder, getHash(destination + " " + String.join(" ", commands)) + "." + commands.get(0).substring(1));
+	}
+
+	/**
+	 * Returns hash of the given text, which is safe to use in name of file
+	 *
+	 * @param text destination and commands
+	 * @return SHA-256 of text in hex
+	 */
+	private String getHash(String text) {
+		try {
+			StringBuilder hash = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8))) {
+				hash.append(String.format("%02x", b));
+			}
+			return hash.toString();
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex); //every Java platform supports SHA-256
+		}
+	}
+}
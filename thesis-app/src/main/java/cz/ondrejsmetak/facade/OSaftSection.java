@@ -0,0 +1,38 @@
+package cz.ondrejsmetak.facade;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Section of O-Saft output. Each section is produced by one or more O-Saft
+ * commands and contains data of one category of tests.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public enum OSaftSection {
+
+	VULNERABILITIES("+beast", "+crime", "+drown", "+freak", "+heartbleed", "+logjam", "+lucky13", "+poodle", "+rc4",
+			"+sweet32", "+hassslv2", "+hassslv3", "+pfs_cipher", "+session_random"), //just the checks, that are parsed
+	CIPHER_SUITES("+cipherall"),
+	CERTIFICATE("+info", "+chain"),
+	PROTOCOLS("+protocols");
+
+	/**
+	 * O-Saft commands, that produce this section
+	 */
+	private final String[] commands;
+
+	private OSaftSection(String... commands) {
+		this.commands = commands;
+	}
+
+	/**
+	 * Returns O-Saft commands, that produce this section
+	 *
+	 * @return collection of O-Saft commands
+	 */
+	public List<String> getCommands() {
+		return new ArrayList<>(Arrays.asList(commands));
+	}
+}
@@ -0,0 +1,387 @@
+package cz.ondrejsmetak.facade;
+
+import cz.ondrejsmetak.ConfigurationRegister;
+import cz.ondrejsmetak.ResourceManager;
+import cz.ondrejsmetak.tool.CommandOutput;
+import cz.ondrejsmetak.tool.Helper;
+import cz.ondrejsmetak.tool.Log;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Pool of long-lived O-Saft workers. Each worker is Perl process running
+ * script "o-saft-worker.pl", which loads modules used by O-Saft only once and
+ * then runs O-Saft jobs sent to its standard input. Output of each job is
+ * terminated by newline and line with token of the job. Worker is checked
+ * before each job and it's replaced, when it doesn't respond or when it has
+ * run given number of jobs. When worker can't be started at all, pool is
+ * disabled and O-Saft is run directly.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class OSaftWorkerPool {
+
+	/**
+	 * Line printed by worker, when it's ready to run jobs
+	 */
+	private static final String READY = "READY";
+
+	/**
+	 * Maximum time in seconds to start worker
+	 */
+	private static final int START_TIMEOUT = 60;
+
+	/**
+	 * Maximum time in seconds to answer health check or to finish killed job
+	 */
+	private static final int RESPONSE_TIMEOUT = 10;
+
+	/**
+	 * Instance of this class
+	 */
+	private static OSaftWorkerPool instance = null;
+
+	/**
+	 * Workers, that aren't running any job
+	 */
+	private final BlockingQueue<Worker> idle = new LinkedBlockingQueue<>();
+
+	/**
+	 * Script of worker, copied from resources
+	 */
+	private File script;
+
+	/**
+	 * Was pool disabled, because worker can't be started?
+	 */
+	private volatile boolean disabled = false;
+
+	protected OSaftWorkerPool() {
+		for (int i = 0; i < ConfigurationRegister.getInstance().getOSaftWorkers(); i++) {
+			idle.add(new Worker()); //workers are started, when they are needed
+		}
+	}
+
+	/**
+	 * Returns a instance of this class
+	 *
+	 * @return instance of this class
+	 */
+	public static synchronized OSaftWorkerPool getInstance() {
+		if (instance == null) {
+			instance = new OSaftWorkerPool();
+		}
+		return instance;
+	}
+
+	/**
+	 * Runs O-Saft with the given arguments in some worker. When all the workers
+	 * are busy, it waits for one of them. Limits of run time are the same as
+	 * for O-Saft run directly.
+	 *
+	 * @param consumer receiver of lines returned by O-Saft tool
+	 * @param timeout maximum run time in seconds, zero means no limit
+	 * @param stallTimeout maximum time without any output in seconds, zero
+	 * means no limit
+	 * @param args arguments of O-Saft, without path to O-Saft
+	 * @return output of O-Saft or null, if pool can't be used and O-Saft must
+	 * be run directly
+	 */
+	public CommandOutput run(Consumer<String> consumer, int timeout, int stallTimeout, String... args) {
+		for (String arg : args) {
+			if (arg.contains("\t") || arg.contains("\n")) {
+				return null; //can't be sent to worker
+			}
+		}
+
+		if (disabled) {
+			return null;
+		}
+
+		Worker worker;
+		try {
+			worker = idle.take();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt(); //let the caller know
+			return new CommandOutput(new ArrayList<>(), "interrupted");
+		}
+
+		try {
+			if (!prepare(worker)) {
+				return null;
+			}
+
+			String timeoutReason = worker.run(UUID.randomUUID().toString(), args, consumer, timeout, stallTimeout);
+			if (Thread.currentThread().isInterrupted()) {
+				worker.stop(); //job wasn't finished properly
+			}
+
+			return new CommandOutput(new ArrayList<>(), timeoutReason);
+		} catch (IOException ex) {
+			Log.debugException(ex);
+			worker.stop();
+			return new CommandOutput(new ArrayList<>(), ex.getMessage());
+		} finally {
+			idle.add(worker);
+		}
+	}
+
+	/**
+	 * Makes the given worker ready for the next job. Worker, that has run too
+	 * many jobs or that doesn't answer health check, is replaced by new one.
+	 *
+	 * @param worker worker taken from pool
+	 * @return true, if worker is ready, false if it can't be started
+	 */
+	private boolean prepare(Worker worker) {
+		if (worker.isAlive() && worker.getJobs() >= ConfigurationRegister.getInstance().getOSaftWorkerMaxJobs()) {
+			worker.stop(); //recycled
+		}
+
+		if (worker.isAlive()) {
+			try {
+				if (worker.run(UUID.randomUUID().toString(), new String[0], line -> {}, RESPONSE_TIMEOUT, 0) == null) {
+					return true;
+				}
+			} catch (IOException ex) {
+				Log.debugException(ex);
+			}
+			worker.stop();
+		}
+
+		try {
+			worker.start(getScript(), ConfigurationRegister.getInstance().getOSaftFolderAbsolutePath() + "o-saft.pl");
+			return true;
+		} catch (IOException ex) {
+			Log.debugException(ex);
+			synchronized (this) {
+				if (!disabled) {
+					Log.warningln("Can't start worker of O-Saft (" + ex.getMessage() + "), O-Saft will be run directly");
+					disabled = true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Returns script of worker. It's copied from resources into temporary file,
+	 * when it's needed for the first time.
+	 *
+	 * @return script of worker
+	 * @throws IOException if script can't be copied
+	 */
+	private synchronized File getScript() throws IOException {
+		if (script == null) {
+			File file = File.createTempFile("o-saft-worker", ".pl");
+			file.deleteOnExit();
+			try (InputStream in = ResourceManager.getOSaftWorkerScript()) {
+				if (in == null) {
+					throw new IOException("script of worker is missing");
+				}
+				Files.copy(in, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			script = file;
+		}
+
+		return script;
+	}
+
+	/**
+	 * Stops all the workers. Pool can be used again, workers are started, when
+	 * they are needed.
+	 */
+	public void shutdown() {
+		for (Worker worker : idle) {
+			worker.stop();
+		}
+	}
+
+	/**
+	 * One long-lived O-Saft worker
+	 */
+	private static class Worker {
+
+		/**
+		 * Process of worker or null, if worker isn't started
+		 */
+		private Process process;
+
+		/**
+		 * Standard input of worker, where jobs are sent
+		 */
+		private BufferedWriter in;
+
+		/**
+		 * Lines printed by worker, that weren't read yet
+		 */
+		private BlockingQueue<String> lines;
+
+		/**
+		 * Number of jobs run by worker
+		 */
+		private int jobs;
+
+		/**
+		 * Starts worker and waits, until it's ready
+		 *
+		 * @param script script of worker
+		 * @param oSaft path to O-Saft
+		 * @throws IOException if worker can't be started
+		 */
+		void start(File script, String oSaft) throws IOException {
+			ProcessBuilder ps = new ProcessBuilder("perl", script.getAbsolutePath(), oSaft);
+			ps.redirectErrorStream(true);
+			process = ps.start();
+			in = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+			lines = new LinkedBlockingQueue<>();
+			jobs = 0;
+
+			Process started = process;
+			BlockingQueue<String> output = lines;
+			Thread reader = new Thread(() -> {
+				try (BufferedReader out = new BufferedReader(new InputStreamReader(started.getInputStream(), StandardCharsets.UTF_8))) {
+					String line;
+					while ((line = out.readLine()) != null) {
+						output.add(line);
+					}
+				} catch (IOException ex) {
+					//stream is closed, when worker is stopped
+				}
+			});
+			reader.setDaemon(true);
+			reader.start();
+
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(START_TIMEOUT);
+			try {
+				while (System.nanoTime() < deadline) {
+					String line = lines.poll(1, TimeUnit.SECONDS);
+					if (READY.equals(line)) {
+						return;
+					}
+					if (line == null && !process.isAlive()) {
+						break;
+					}
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt(); //let the caller know
+			}
+
+			stop();
+			throw new IOException("worker didn't start");
+		}
+
+		/**
+		 * Runs one job and passes its output to consumer. Job, that runs too
+		 * long, is killed, but worker is kept.
+		 *
+		 * @param token token, that terminates output of job
+		 * @param args arguments of O-Saft, no arguments means health check
+		 * @param consumer receiver of lines printed by job
+		 * @param timeout maximum run time in seconds, zero means no limit
+		 * @param stallTimeout maximum time without any output in seconds,
+		 * zero means no limit
+		 * @return reason, why was job killed, or null, if it finished
+		 * @throws IOException if worker died or doesn't respond
+		 */
+		String run(String token, String[] args, Consumer<String> consumer, int timeout, int stallTimeout) throws IOException {
+			in.write(args.length == 0 ? token : token + "\t" + String.join("\t", args));
+			in.newLine();
+			in.flush();
+
+			long started = System.nanoTime();
+			long lastOutput = started;
+			long killed = 0;
+			String timeoutReason = null;
+			boolean emptyLine = false;
+
+			try {
+				while (true) {
+					String line = lines.poll(1, TimeUnit.SECONDS);
+					long now = System.nanoTime();
+
+					if (line != null && line.startsWith(token + " ")) {
+						if (args.length > 0) {
+							jobs++;
+						}
+						return timeoutReason;
+					}
+
+					if (line != null) {
+						lastOutput = now;
+						if (emptyLine) {
+							consumer.accept("");
+						}
+						emptyLine = line.isEmpty(); //newline before token isn't output of job
+						if (!emptyLine) {
+							consumer.accept(line);
+						}
+						continue;
+					}
+
+					if (!process.isAlive() && lines.isEmpty()) {
+						throw new IOException("worker of O-Saft died");
+					}
+
+					if (timeoutReason != null) {
+						if (now - killed >= TimeUnit.SECONDS.toNanos(RESPONSE_TIMEOUT)) {
+							throw new IOException("worker of O-Saft doesn't respond");
+						}
+						continue; //waiting for token of killed job
+					}
+
+					timeoutReason = Helper.getTimeoutReason(started, lastOutput, timeout, stallTimeout);
+					if (timeoutReason != null) {
+						killed = now;
+						killJob();
+					}
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt(); //let the caller know
+				return "interrupted";
+			}
+		}
+
+		/**
+		 * Kills running job (and all processes started by it), but not the
+		 * worker itself
+		 */
+		private void killJob() {
+			Helper.destroyDescendants(process);
+		}
+
+		/**
+		 * Stops worker, including running job
+		 */
+		void stop() {
+			if (process == null) {
+				return;
+			}
+
+			Helper.destroyProcessTree(process);
+			process = null;
+		}
+
+		boolean isAlive() {
+			return process != null && process.isAlive();
+		}
+
+		int getJobs() {
+			return jobs;
+		}
+	}
+}
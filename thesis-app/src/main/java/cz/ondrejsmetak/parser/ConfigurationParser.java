@@ -146,6 +146,57 @@ public class ConfigurationParser extends BaseParser {
 	private void setDirective(String name, String value) throws XmlParserException {
 		setDebug(name, value);
 		setDirectiveOSaftFolderAbsolutePath(name, value);
+		setDirectiveConcurrentScans(name, value);
+		setDirectiveOSaftExecutionMode(name, value);
+		setDirectiveOSaftTimeout(name, value);
+		setDirectiveOSaftStallTimeout(name, value);
+		setDirectiveCipherSuitesBackend(name, value);
+		setDirectiveNativeTimeout(name, value);
+		setDirectiveNativeMaxInFlight(name, value);
+		setDirectiveCipherSuitesEnumeration(name, value);
+		setDirectiveProtocolsBackend(name, value);
+		setDirectiveCertificateBackend(name, value);
+		setDirectiveReachabilityTimeout(name, value);
+		setDirectiveCacheTtl(name, value);
+		setDirectiveOSaftArchive(name, value);
+		setDirectiveOSaftReplay(name, value);
+		setDirectiveOSaftCipherSuitesProcesses(name, value);
+		setDirectiveOSaftBatchSize(name, value);
+		setDirectiveOSaftWorkers(name, value);
+	}
+
+	/**
+	 * Parses value of directive, that must be integer with given minimum
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @param minimum minimum allowed value
+	 * @return parsed value
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private int parseIntegerDirective(String name, String value, int minimum) throws XmlParserException {
+		if (!Helper.isInteger(value) || Integer.parseInt(value.trim()) < minimum) {
+			throw new XmlParserException("Value for directive " + name + " must be integer >= " + minimum + "!");
+		}
+
+		return Integer.parseInt(value.trim());
+	}
+
+	/**
+	 * Checks value of directive, that must be one of the given values
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @param supported supported values
+	 * @return checked value
+	 * @throws XmlParserException if given value is not supported
+	 */
+	private String parseChoiceDirective(String name, String value, String... supported) throws XmlParserException {
+		if (!Arrays.asList(supported).contains(value)) {
+			throw new XmlParserException("Value for directive " + name + " must be one of " + Arrays.toString(supported) + "!");
+		}
+
+		return value;
 	}
 
 	/**
@@ -190,4 +241,260 @@ public class ConfigurationParser extends BaseParser {
 		}
 	}
 
+	/**
+	 * Sets directive, that limits number of targets scanned at the same time
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveConcurrentScans(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.CONCURRENT_SCANS)) {
+			ConfigurationRegister.getInstance().setConcurrentScans(parseIntegerDirective(name, value, 1));
+		}
+	}
+
+	/**
+	 * Sets directive, that decides how are O-Saft commands of one target run
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value is not supported
+	 */
+	private void setDirectiveOSaftExecutionMode(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.O_SAFT_EXECUTION_MODE)) {
+			ConfigurationRegister.getInstance().setOSaftExecutionMode(parseChoiceDirective(name, value,
+					ConfigurationRegister.EXECUTION_MODE_PARALLEL, ConfigurationRegister.EXECUTION_MODE_COMBINED));
+		}
+	}
+
+	/**
+	 * Sets directive, that limits run time of one O-Saft process
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveOSaftTimeout(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.O_SAFT_TIMEOUT)) {
+			ConfigurationRegister.getInstance().setOSaftTimeout(parseIntegerDirective(name, value, 0));
+		}
+	}
+
+	/**
+	 * Sets directive, that limits time without any output of one O-Saft
+	 * process
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveOSaftStallTimeout(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.O_SAFT_STALL_TIMEOUT)) {
+			ConfigurationRegister.getInstance().setOSaftStallTimeout(parseIntegerDirective(name, value, 0));
+		}
+	}
+
+	/**
+	 * Sets directive, that decides, if cipher suites are tested by O-Saft or
+	 * natively
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value is not supported
+	 */
+	private void setDirectiveCipherSuitesBackend(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.CIPHER_SUITES_BACKEND)) {
+			ConfigurationRegister.getInstance().setCipherSuitesBackend(parseChoiceDirective(name, value,
+					ConfigurationRegister.BACKEND_O_SAFT, ConfigurationRegister.BACKEND_NATIVE));
+		}
+	}
+
+	/**
+	 * Sets directive, that limits duration of one native handshake
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveNativeTimeout(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.NATIVE_TIMEOUT)) {
+			ConfigurationRegister.getInstance().setNativeTimeout(parseIntegerDirective(name, value, 1));
+		}
+	}
+
+	/**
+	 * Sets directive, that limits number of native handshakes in flight
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveNativeMaxInFlight(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.NATIVE_MAX_IN_FLIGHT)) {
+			ConfigurationRegister.getInstance().setNativeMaxInFlight(parseIntegerDirective(name, value, 1));
+		}
+	}
+
+	/**
+	 * Sets directive, that chooses algorithm of native cipher suites testing
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value is not supported
+	 */
+	private void setDirectiveCipherSuitesEnumeration(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.CIPHER_SUITES_ENUMERATION)) {
+			ConfigurationRegister.getInstance().setCipherSuitesEnumeration(parseChoiceDirective(name, value,
+					ConfigurationRegister.ENUMERATION_ONE_BY_ONE, ConfigurationRegister.ENUMERATION_ELIMINATION));
+		}
+	}
+
+	/**
+	 * Sets directive, that decides, if protocols are tested by O-Saft or
+	 * natively
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value is not supported
+	 */
+	private void setDirectiveProtocolsBackend(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.PROTOCOLS_BACKEND)) {
+			ConfigurationRegister.getInstance().setProtocolsBackend(parseChoiceDirective(name, value,
+					ConfigurationRegister.BACKEND_O_SAFT, ConfigurationRegister.BACKEND_NATIVE));
+		}
+	}
+
+	/**
+	 * Sets directive, that decides, if certificate is tested by O-Saft or
+	 * natively
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value is not supported
+	 */
+	private void setDirectiveCertificateBackend(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.CERTIFICATE_BACKEND)) {
+			ConfigurationRegister.getInstance().setCertificateBackend(parseChoiceDirective(name, value,
+					ConfigurationRegister.BACKEND_O_SAFT, ConfigurationRegister.BACKEND_NATIVE));
+		}
+	}
+
+	/**
+	 * Sets directive, that limits TCP connection, which tests reachability of
+	 * targets
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveReachabilityTimeout(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.REACHABILITY_TIMEOUT)) {
+			ConfigurationRegister.getInstance().setReachabilityTimeout(parseIntegerDirective(name, value, 0));
+		}
+	}
+
+	/**
+	 * Sets directives "cacheTtlVulnerabilities", "cacheTtlCipherSuites",
+	 * "cacheTtlCertificate" and "cacheTtlProtocols"
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveCacheTtl(String name, String value) throws XmlParserException {
+		ConfigurationRegister config = ConfigurationRegister.getInstance();
+
+		if (name.equalsIgnoreCase(ConfigurationRegister.CACHE_TTL_VULNERABILITIES)) {
+			config.setCacheTtlVulnerabilities(parseIntegerDirective(name, value, 0));
+		} else if (name.equalsIgnoreCase(ConfigurationRegister.CACHE_TTL_CIPHER_SUITES)) {
+			config.setCacheTtlCipherSuites(parseIntegerDirective(name, value, 0));
+		} else if (name.equalsIgnoreCase(ConfigurationRegister.CACHE_TTL_CERTIFICATE)) {
+			config.setCacheTtlCertificate(parseIntegerDirective(name, value, 0));
+		} else if (name.equalsIgnoreCase(ConfigurationRegister.CACHE_TTL_PROTOCOLS)) {
+			config.setCacheTtlProtocols(parseIntegerDirective(name, value, 0));
+		}
+	}
+
+	/**
+	 * Sets directive, that turns on archive of raw O-Saft output
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveOSaftArchive(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.O_SAFT_ARCHIVE)) {
+			if (!Helper.isBooleanStr(value)) {
+				throw new XmlParserException("Value for directive " + ConfigurationRegister.O_SAFT_ARCHIVE + " must be [true] or [false]!");
+			}
+
+			ConfigurationRegister.getInstance().setOSaftArchive(Helper.parseBooleanStr(value));
+		}
+	}
+
+	/**
+	 * Sets directive, that replays archived O-Saft output instead of running
+	 * O-Saft
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveOSaftReplay(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.O_SAFT_REPLAY)) {
+			if (!Helper.isBooleanStr(value)) {
+				throw new XmlParserException("Value for directive " + ConfigurationRegister.O_SAFT_REPLAY + " must be [true] or [false]!");
+			}
+
+			ConfigurationRegister.getInstance().setOSaftReplay(Helper.parseBooleanStr(value));
+		}
+	}
+
+	/**
+	 * Sets directive, that limits number of O-Saft processes, that test cipher
+	 * suites of one target at the same time
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveOSaftCipherSuitesProcesses(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.O_SAFT_CIPHER_SUITES_PROCESSES)) {
+			ConfigurationRegister.getInstance().setOSaftCipherSuitesProcesses(parseIntegerDirective(name, value, 1));
+		}
+	}
+
+	/**
+	 * Sets directive, that limits number of targets scanned by a single O-Saft
+	 * process
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveOSaftBatchSize(String name, String value) throws XmlParserException {
+		if (name.equalsIgnoreCase(ConfigurationRegister.O_SAFT_BATCH_SIZE)) {
+			ConfigurationRegister.getInstance().setOSaftBatchSize(parseIntegerDirective(name, value, 1));
+		}
+	}
+
+	/**
+	 * Sets directives of long-lived O-Saft workers, i.e. their number and
+	 * number of runs, after which is worker replaced
+	 *
+	 * @param name name of directive
+	 * @param value value of directive
+	 * @throws XmlParserException if given value has unsupported format
+	 */
+	private void setDirectiveOSaftWorkers(String name, String value) throws XmlParserException {
+		ConfigurationRegister config = ConfigurationRegister.getInstance();
+
+		if (name.equalsIgnoreCase(ConfigurationRegister.O_SAFT_WORKERS)) {
+			config.setOSaftWorkers(parseIntegerDirective(name, value, 0));
+		} else if (name.equalsIgnoreCase(ConfigurationRegister.O_SAFT_WORKER_MAX_JOBS)) {
+			config.setOSaftWorkerMaxJobs(parseIntegerDirective(name, value, 1));
+		}
+	}
+
 }
@@ -60,6 +60,7 @@ public class TargetParser extends BaseParser {
 	private static final String TAG_DIRECTIVE = "directive";
 	private static final String TAG_CIPHERS = "ciphers";
 	private static final String TAG_CIPHER = "cipher";
+	private static final String TAG_SERVER_CIPHER_ORDER = "serverCipherOrder";
 	private static final String TAG_TARGETS = "targets";
 	private static final String TAG_TARGET = "target";
 	private static final String TAG_CUSTOM_CERTIFICATE_AUTHORITY = "customCertificateAuthority";
@@ -453,9 +454,9 @@ public class TargetParser extends BaseParser {
 			throw new XmlParserException("Unknown directive [%s] for directives!", name);
 		}
 
-		//currently, only one general directive is supported
+		//all the general directives are boolean
 		if (!Helper.isBooleanStr(valueStr)) {
-			throw new XmlParserException("Value for directive " + Profile.UNKNOWN_TEST_RESULT_IS_ERROR + " must be [true] or [false]!");
+			throw new XmlParserException("Value for directive " + name + " must be [true] or [false]!");
 		}
 
 		return new Directive(name, Helper.parseBooleanStr(valueStr), new Mode(Type.MUST_BE));
@@ -470,6 +471,7 @@ public class TargetParser extends BaseParser {
 
 		NodeList directives = directivesTag.getElementsByTagName(TAG_DIRECTIVE);
 		List<String> expectedDirectives = Profile.getAllGeneralDirectives();
+		expectedDirectives.removeAll(Profile.getOptionalGeneralDirectives());
 
 		for (int i = 0; i < directives.getLength(); i++) {
 			Directive directive = parseGeneralDirective(directives.item(i));
@@ -553,7 +555,7 @@ public class TargetParser extends BaseParser {
 		String name = profile.getAttribute(ATTRIBUTE_NAME);
 
 		/**
-		 * Directives, currently only one
+		 * Directives
 		 */
 		Element directivesTag = getElementByTagName(profile, TAG_DIRECTIVES);
 		List<Directive> generalDirectives = parseGeneralDirectives(directivesTag);
@@ -584,8 +586,32 @@ public class TargetParser extends BaseParser {
 		 */
 		Element ciphers = getElementByTagName(profile, TAG_CIPHERS);
 		List<CipherSuite> cipherSuites = parseCipherSuites(ciphers);
+		Mode serverCipherOrder = parseServerCipherOrder(ciphers);
 
-		return Profile.fromXml(name, generalDirectives, protocols, certificate, certificateDirectives, certificateAuthority, vulnerabilities, cipherSuites);
+		Profile done = Profile.fromXml(name, generalDirectives, protocols, certificate, certificateDirectives, certificateAuthority, vulnerabilities, cipherSuites);
+		done.setServerCipherOrder(serverCipherOrder);
+		return done;
+	}
+
+	/**
+	 * Parses optional rule, that server must (or must not) enforce its order of
+	 * cipher suites, stored between <ciphers></ciphers>
+	 *
+	 * @param ciphers cipher suites node
+	 * @return mode of rule, "CAN BE" if there is no rule
+	 */
+	private Mode parseServerCipherOrder(Element ciphers) throws XmlParserException {
+		NodeList orders = ciphers.getElementsByTagName(TAG_SERVER_CIPHER_ORDER);
+		if (orders.getLength() == 0) {
+			return new Mode(Type.CAN_BE);
+		}
+
+		if (orders.getLength() != 1) {
+			throw new XmlParserException("There can be at most one %s tag for each profile", TAG_SERVER_CIPHER_ORDER);
+		}
+
+		checkAttributesOfNode(orders.item(0), ATTRIBUTE_MODE);
+		return parseMode(((Element) orders.item(0)).getAttribute(ATTRIBUTE_MODE), TAG_SERVER_CIPHER_ORDER);
 	}
 
 	/**
@@ -639,6 +665,6 @@ public class TargetParser extends BaseParser {
 	 */
 	private List<String> getSupportedTags() {
 		return new ArrayList<>(Arrays.asList(new String[]{TAG_CONFIGURATION, TAG_PROFILES, TAG_PROFILE, TAG_PROTOCOLS, TAG_PROTOCOL,
-			TAG_VULNERABILITIES_FREE, TAG_DIRECTIVES, TAG_DIRECTIVE, TAG_CERTIFICATE_VALID, TAG_CIPHERS, TAG_CIPHER, TAG_TARGETS, TAG_TARGET, TAG_CUSTOM_CERTIFICATE_AUTHORITY}));
+			TAG_VULNERABILITIES_FREE, TAG_DIRECTIVES, TAG_DIRECTIVE, TAG_CERTIFICATE_VALID, TAG_CIPHERS, TAG_CIPHER, TAG_SERVER_CIPHER_ORDER, TAG_TARGETS, TAG_TARGET, TAG_CUSTOM_CERTIFICATE_AUTHORITY}));
 	}
 }
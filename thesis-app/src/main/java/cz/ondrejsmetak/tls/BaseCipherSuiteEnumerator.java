@@ -0,0 +1,114 @@
+package cz.ondrejsmetak.tls;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Base abstract class for all algorithms, that find out cipher suites
+ * supported by target
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public abstract class BaseCipherSuiteEnumerator {
+
+	/**
+	 * Probe of target
+	 */
+	protected final TlsProbe probe;
+
+	/**
+	 * Did target answer at least once?
+	 */
+	private volatile boolean answered = false;
+
+	/**
+	 * Were all the probes answered? Probe, that failed even when it was
+	 * repeated, tells nothing about offered cipher suites.
+	 */
+	private volatile boolean complete = true;
+
+	/**
+	 * Creates new enumerator, that uses the given probe
+	 *
+	 * @param probe probe of target
+	 */
+	public BaseCipherSuiteEnumerator(TlsProbe probe) {
+		this.probe = probe;
+	}
+
+	/**
+	 * Finds out, which of the given cipher suites are supported by target in
+	 * the given version
+	 *
+	 * @param version version of protocol
+	 * @param candidates IANA codes of cipher suites, that will be tested
+	 * @return IANA codes of supported cipher suites
+	 */
+	public abstract List<Integer> enumerate(TlsVersion version, List<Integer> candidates);
+
+	/**
+	 * Runs one probe and remembers, if target answered
+	 *
+	 * @param version offered version
+	 * @param cipherSuites IANA codes of offered cipher suites
+	 * @return result of probe
+	 */
+	protected ProbeResult probe(TlsVersion version, List<Integer> cipherSuites) {
+		return probeAsync(version, cipherSuites).join();
+	}
+
+	/**
+	 * Submits one probe and remembers, if target answered, without waiting for
+	 * result. Failed probe (timeout, reset connection) is repeated once, then
+	 * enumeration is incomplete.
+	 *
+	 * @param version offered version
+	 * @param cipherSuites IANA codes of offered cipher suites
+	 * @return future result of probe
+	 */
+	protected CompletableFuture<ProbeResult> probeAsync(TlsVersion version, List<Integer> cipherSuites) {
+		if (cipherSuites.isEmpty()) {
+			return CompletableFuture.completedFuture(ProbeResult.getRejected()); //nothing offered, so nothing is missing
+		}
+
+		return probe.probeAsync(version, cipherSuites).thenCompose(result
+				-> result.isFailed() ? probe.probeAsync(version, cipherSuites) : CompletableFuture.completedFuture(result)
+		).thenApply(result -> {
+			if (result.isFailed()) {
+				complete = false;
+			} else {
+				answered = true;
+			}
+			return result;
+		});
+	}
+
+	/**
+	 * Returns order of cipher suites, that server used during the last
+	 * enumeration. Only some algorithms can tell.
+	 *
+	 * @return order of cipher suites
+	 */
+	public ServerCipherOrder getServerCipherOrder() {
+		return ServerCipherOrder.UNKNOWN;
+	}
+
+	/**
+	 * Did target answer at least one probe? If not, target is probably down.
+	 *
+	 * @return true, if target answered, false otherwise
+	 */
+	public boolean isAnswered() {
+		return answered;
+	}
+
+	/**
+	 * Were all the probes answered (rejection is an answer)? If not, some
+	 * supported cipher suites may be missing in result.
+	 *
+	 * @return true, if result is complete, false otherwise
+	 */
+	public boolean isComplete() {
+		return complete;
+	}
+}
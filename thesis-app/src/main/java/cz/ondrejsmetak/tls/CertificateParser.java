@@ -0,0 +1,117 @@
+package cz.ondrejsmetak.tls;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parses server's answer until Certificate message, so certificates can be
+ * read without finishing handshake. Works up to TLS 1.2, because TLS 1.3
+ * encrypts Certificate message.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class CertificateParser extends ServerHelloParser {
+
+	/**
+	 * Types of handshake messages
+	 */
+	private static final int HANDSHAKE_CERTIFICATE = 11;
+	private static final int HANDSHAKE_SERVER_HELLO_DONE = 14;
+
+	/**
+	 * Size of buffer for handshake messages, long chains must fit
+	 */
+	private static final int CAPACITY = 65536;
+
+	/**
+	 * DER encoded certificates, leaf first
+	 */
+	private final List<byte[]> certificates = new ArrayList<>();
+
+	public CertificateParser() {
+		super(CAPACITY);
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		certificates.clear();
+	}
+
+	@Override
+	protected State parseFollowing(int offset) {
+		if (getVersion() == TlsVersion.TLSv13) {
+			return State.SERVER_HELLO; //certificates are encrypted
+		}
+
+		while (offset + 4 <= handshake.position()) {
+			int type = handshake.get(offset) & 0xFF;
+			int length = readLength(offset + 1);
+
+			if (offset + 4 + length > handshake.capacity()) {
+				return State.UNEXPECTED;
+			}
+
+			if (offset + 4 + length > handshake.position()) {
+				return State.INCOMPLETE;
+			}
+
+			if (type == HANDSHAKE_CERTIFICATE) {
+				return parseCertificates(offset + 4, offset + 4 + length);
+			}
+
+			if (type == HANDSHAKE_SERVER_HELLO_DONE) {
+				return State.SERVER_HELLO; //anonymous cipher suite, no certificate
+			}
+
+			offset += 4 + length;
+		}
+
+		return State.INCOMPLETE;
+	}
+
+	/**
+	 * Reads certificates from Certificate message
+	 *
+	 * @param start position of message body
+	 * @param end end of message body
+	 * @return state of parsing
+	 */
+	private State parseCertificates(int start, int end) {
+		if (start + 3 > end || start + 3 + readLength(start) != end) {
+			return State.UNEXPECTED;
+		}
+
+		int position = start + 3;
+		while (position + 3 <= end) {
+			int length = readLength(position);
+			if (position + 3 + length > end) {
+				return State.UNEXPECTED;
+			}
+
+			byte[] certificate = new byte[length];
+			for (int i = 0; i < length; i++) {
+				certificate[i] = handshake.get(position + 3 + i);
+			}
+			certificates.add(certificate);
+			position += 3 + length;
+		}
+
+		return State.SERVER_HELLO;
+	}
+
+	/**
+	 * Reads three bytes long length
+	 *
+	 * @param position position of length
+	 * @return length
+	 */
+	private int readLength(int position) {
+		return ((handshake.get(position) & 0xFF) << 16) | ((handshake.get(position + 1) & 0xFF) << 8) | (handshake.get(position + 2) & 0xFF);
+	}
+
+	@Override
+	public ProbeResult getResult() {
+		return ProbeResult.getAccepted(getVersion(), getCipherSuite(), new ArrayList<>(certificates));
+	}
+}
@@ -0,0 +1,251 @@
+package cz.ondrejsmetak.tls;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Writes ClientHello record byte by byte into a given buffer. Only parts,
+ * that are required for server to choose protocol version and cipher suite,
+ * are written. Handshake is never finished, so no keys are generated. TLS 1.3
+ * ClientHello has empty key share, so server answers with HelloRetryRequest,
+ * which carries the chosen cipher suite as well. SSLv2 uses its own
+ * (SSLv2-compatible) ClientHello, which offers cipher specs.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class ClientHelloBuilder {
+
+	/**
+	 * Types of record and handshake message
+	 */
+	private static final int RECORD_HANDSHAKE = 22;
+	private static final int HANDSHAKE_CLIENT_HELLO = 1;
+
+	/**
+	 * Length of challenge in SSLv2 ClientHello
+	 */
+	private static final int SSLV2_CHALLENGE_LENGTH = 16;
+
+	/**
+	 * Types of extensions
+	 */
+	private static final int EXTENSION_SERVER_NAME = 0x0000;
+	private static final int EXTENSION_SUPPORTED_GROUPS = 0x000a;
+	private static final int EXTENSION_EC_POINT_FORMATS = 0x000b;
+	private static final int EXTENSION_SIGNATURE_ALGORITHMS = 0x000d;
+	private static final int EXTENSION_SUPPORTED_VERSIONS = 0x002b;
+	private static final int EXTENSION_KEY_SHARE = 0x0033;
+	private static final int EXTENSION_RENEGOTIATION_INFO = 0xff01;
+
+	/**
+	 * Offered groups: x25519, secp256r1, secp384r1, secp521r1, x448,
+	 * ffdhe2048, ffdhe3072
+	 */
+	private static final int[] SUPPORTED_GROUPS = {0x001d, 0x0017, 0x0018, 0x0019, 0x001e, 0x0100, 0x0101};
+
+	/**
+	 * Offered signature algorithms (ECDSA, RSA-PSS, RSA PKCS#1 and legacy
+	 * SHA-1 ones)
+	 */
+	private static final int[] SIGNATURE_ALGORITHMS = {0x0403, 0x0503, 0x0603, 0x0807, 0x0808, 0x0804, 0x0805, 0x0806,
+		0x0401, 0x0501, 0x0601, 0x0203, 0x0201, 0x0402, 0x0202};
+
+	/**
+	 * Host name sent in SNI extension or null, if target is IP address
+	 */
+	private final byte[] serverName;
+
+	/**
+	 * Creates builder of ClientHello for the given host
+	 *
+	 * @param host host name or IP address of target
+	 */
+	public ClientHelloBuilder(String host) {
+		this.serverName = isIpAddress(host) ? null : host.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Checks, if the given host is IP address. SNI can contain only host name.
+	 *
+	 * @param host host name or IP address
+	 * @return true, if host is IP address, false otherwise
+	 */
+	private static boolean isIpAddress(String host) {
+		return host.contains(":") || host.matches("[0-9.]+");
+	}
+
+	/**
+	 * Writes ClientHello record into the given buffer. Buffer is cleared
+	 * first and flipped at the end, so it is ready for writing to channel.
+	 *
+	 * @param out buffer for record
+	 * @param version offered version of protocol
+	 * @param cipherSuites IANA codes of offered cipher suites (or codes of
+	 * cipher specs for SSLv2)
+	 */
+	public void build(ByteBuffer out, TlsVersion version, List<Integer> cipherSuites) {
+		out.clear();
+
+		if (version == TlsVersion.SSLv2) {
+			buildSslv2(out, cipherSuites);
+			out.flip();
+			return;
+		}
+
+		/**
+		 * Record header, record version of TLS is 1.0 for the best
+		 * compatibility
+		 */
+		out.put((byte) RECORD_HANDSHAKE);
+		out.putShort((short) Math.min(version.getCode(), TlsVersion.TLSv10.getCode()));
+		int recordLength = reserve(out, 2);
+
+		/**
+		 * Handshake header
+		 */
+		out.put((byte) HANDSHAKE_CLIENT_HELLO);
+		int handshakeLength = reserve(out, 3);
+
+		/**
+		 * TLS 1.3 is negotiated only in extension, legacy version stays 1.2
+		 */
+		out.putShort((short) Math.min(version.getCode(), TlsVersion.TLSv12.getCode()));
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < 4; i++) {
+			out.putLong(random.nextLong());
+		}
+		out.put((byte) 0); //no session id
+
+		out.putShort((short) (cipherSuites.size() * 2));
+		for (int cipherSuite : cipherSuites) {
+			out.putShort((short) cipherSuite);
+		}
+
+		out.put((byte) 1); //only null compression
+		out.put((byte) 0);
+
+		/**
+		 * SSLv3 doesn't know extensions
+		 */
+		if (version != TlsVersion.SSLv3) {
+			int extensionsLength = reserve(out, 2);
+			writeExtensions(out, version);
+			fill(out, extensionsLength, 2);
+		}
+
+		fill(out, handshakeLength, 3);
+		fill(out, recordLength, 2);
+		out.flip();
+	}
+
+	/**
+	 * Writes SSLv2 ClientHello, which has two bytes long header with the
+	 * highest bit set and three bytes long cipher specs
+	 *
+	 * @param out buffer for record
+	 * @param cipherSpecs codes of offered cipher specs
+	 */
+	private void buildSslv2(ByteBuffer out, List<Integer> cipherSpecs) {
+		int length = 9 + cipherSpecs.size() * 3 + SSLV2_CHALLENGE_LENGTH;
+		out.put((byte) (0x80 | (length >>> 8)));
+		out.put((byte) length);
+
+		out.put((byte) HANDSHAKE_CLIENT_HELLO);
+		out.putShort((short) TlsVersion.SSLv2.getCode());
+		out.putShort((short) (cipherSpecs.size() * 3));
+		out.putShort((short) 0); //no session id
+		out.putShort((short) SSLV2_CHALLENGE_LENGTH);
+
+		for (int cipherSpec : cipherSpecs) {
+			out.put((byte) (cipherSpec >>> 16));
+			out.putShort((short) cipherSpec);
+		}
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		for (int i = 0; i < SSLV2_CHALLENGE_LENGTH / 8; i++) {
+			out.putLong(random.nextLong());
+		}
+	}
+
+	/**
+	 * Writes extensions of ClientHello
+	 *
+	 * @param out buffer for record
+	 * @param version offered version of protocol
+	 */
+	private void writeExtensions(ByteBuffer out, TlsVersion version) {
+		if (serverName != null) {
+			out.putShort((short) EXTENSION_SERVER_NAME);
+			out.putShort((short) (serverName.length + 5));
+			out.putShort((short) (serverName.length + 3));
+			out.put((byte) 0); //host name
+			out.putShort((short) serverName.length);
+			out.put(serverName);
+		}
+
+		out.putShort((short) EXTENSION_SUPPORTED_GROUPS);
+		out.putShort((short) (SUPPORTED_GROUPS.length * 2 + 2));
+		out.putShort((short) (SUPPORTED_GROUPS.length * 2));
+		for (int group : SUPPORTED_GROUPS) {
+			out.putShort((short) group);
+		}
+
+		out.putShort((short) EXTENSION_EC_POINT_FORMATS);
+		out.putShort((short) 2);
+		out.put((byte) 1);
+		out.put((byte) 0); //uncompressed
+
+		out.putShort((short) EXTENSION_SIGNATURE_ALGORITHMS);
+		out.putShort((short) (SIGNATURE_ALGORITHMS.length * 2 + 2));
+		out.putShort((short) (SIGNATURE_ALGORITHMS.length * 2));
+		for (int algorithm : SIGNATURE_ALGORITHMS) {
+			out.putShort((short) algorithm);
+		}
+
+		out.putShort((short) EXTENSION_RENEGOTIATION_INFO);
+		out.putShort((short) 1);
+		out.put((byte) 0);
+
+		if (version == TlsVersion.TLSv13) {
+			out.putShort((short) EXTENSION_SUPPORTED_VERSIONS);
+			out.putShort((short) 3);
+			out.put((byte) 2);
+			out.putShort((short) TlsVersion.TLSv13.getCode());
+
+			out.putShort((short) EXTENSION_KEY_SHARE);
+			out.putShort((short) 2);
+			out.putShort((short) 0); //no key share, server must ask for one
+		}
+	}
+
+	/**
+	 * Skips place for length, that will be known later
+	 *
+	 * @param out buffer for record
+	 * @param bytes size of length in bytes
+	 * @return position of length
+	 */
+	private static int reserve(ByteBuffer out, int bytes) {
+		int position = out.position();
+		out.position(position + bytes);
+		return position;
+	}
+
+	/**
+	 * Fills length reserved by {@link #reserve(java.nio.ByteBuffer, int)}.
+	 * Length is computed from current position.
+	 *
+	 * @param out buffer for record
+	 * @param position position of length
+	 * @param bytes size of length in bytes
+	 */
+	private static void fill(ByteBuffer out, int position, int bytes) {
+		int length = out.position() - position - bytes;
+		for (int i = bytes - 1; i >= 0; i--) {
+			out.put(position + i, (byte) (length & 0xFF));
+			length >>>= 8;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package cz.ondrejsmetak.tls;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Offers all the remaining candidates at once. Cipher suite chosen by server
+ * is supported, so it is removed from candidates and the rest is offered
+ * again, until server rejects handshake. Costs one handshake per supported
+ * cipher suite plus one, instead of one per candidate.
+ *
+ * Every other handshake offers candidates in reversed order. Server, that
+ * enforces its own order, doesn't care, but server, that follows client's
+ * order, chooses from the other end. So the same handshakes tell also whose
+ * order is used.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class EliminationCipherSuiteEnumerator extends BaseCipherSuiteEnumerator {
+
+	/**
+	 * Order of cipher suites found during the last enumeration
+	 */
+	private ServerCipherOrder serverCipherOrder = ServerCipherOrder.UNKNOWN;
+
+	public EliminationCipherSuiteEnumerator(TlsProbe probe) {
+		super(probe);
+	}
+
+	@Override
+	public List<Integer> enumerate(TlsVersion version, List<Integer> candidates) {
+		List<Integer> supported = new ArrayList<>();
+		List<Integer> remaining = new ArrayList<>(candidates);
+		List<List<Integer>> offers = new ArrayList<>();
+
+		while (!remaining.isEmpty()) {
+			List<Integer> offered = new ArrayList<>(remaining);
+			if (offers.size() % 2 == 1) {
+				Collections.reverse(offered);
+			}
+
+			ProbeResult result = probe(version, offered);
+			if (result.isFailed()) {
+				break; //remaining candidates are unknown, enumeration is incomplete
+			}
+
+			if (!result.isAccepted(version)) {
+				break; //nothing of remaining candidates is supported
+			}
+
+			/**
+			 * Broken server can choose cipher suite, that wasn't offered. We
+			 * can't continue, because it would choose it again.
+			 */
+			if (!remaining.remove((Integer) result.getCipherSuite())) {
+				break;
+			}
+
+			offers.add(offered);
+			supported.add(result.getCipherSuite());
+		}
+
+		serverCipherOrder = getServerCipherOrder(offers, supported);
+		return supported;
+	}
+
+	/**
+	 * Finds out order of cipher suites from the made handshakes. If server
+	 * once didn't choose the first supported cipher suite, that was offered,
+	 * it enforces its order. If it chose the first one in both directions, it
+	 * follows client's order. Handshake with just one supported cipher suite
+	 * on offer tells nothing.
+	 *
+	 * @param offers offered cipher suites in each handshake, in offered order
+	 * @param chosen chosen cipher suite in each handshake
+	 * @return order of cipher suites
+	 */
+	private ServerCipherOrder getServerCipherOrder(List<List<Integer>> offers, List<Integer> chosen) {
+		boolean forward = false;
+		boolean reversed = false;
+
+		for (int i = 0; i < offers.size(); i++) {
+			List<Integer> offered = new ArrayList<>(offers.get(i));
+			offered.retainAll(chosen); //supported cipher suites, that were on offer
+
+			if (offered.size() < 2) {
+				continue;
+			}
+
+			if (!offered.get(0).equals(chosen.get(i))) {
+				return ServerCipherOrder.ENFORCED;
+			}
+
+			if (i % 2 == 0) {
+				forward = true;
+			} else {
+				reversed = true;
+			}
+		}
+
+		return forward && reversed ? ServerCipherOrder.CLIENT : ServerCipherOrder.UNKNOWN;
+	}
+
+	@Override
+	public ServerCipherOrder getServerCipherOrder() {
+		return serverCipherOrder;
+	}
+}
@@ -0,0 +1,78 @@
+package cz.ondrejsmetak.tls;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Offers each candidate cipher suite alone. Cipher suite is supported, if
+ * server accepts it. Costs one handshake per candidate (plus one, that checks
+ * support of version), but works also with servers, that don't choose
+ * correctly from longer lists.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class OneByOneCipherSuiteEnumerator extends BaseCipherSuiteEnumerator {
+
+	/**
+	 * Maximum number of probes of one target in flight, so target isn't
+	 * flooded with connections
+	 */
+	private static final int WINDOW = 8;
+
+	public OneByOneCipherSuiteEnumerator(TlsProbe probe) {
+		super(probe);
+	}
+
+	@Override
+	public List<Integer> enumerate(TlsVersion version, List<Integer> candidates) {
+		List<Integer> supported = new ArrayList<>();
+		if (candidates.isEmpty()) {
+			return supported; //for example SSLv2 or version without targeted cipher suites
+		}
+
+		/**
+		 * If nothing is accepted, there is no need to test candidates one by
+		 * one, because version isn't supported at all. When probe failed,
+		 * enumeration is incomplete.
+		 */
+		if (!probe(version, candidates).isAccepted(version)) {
+			return supported;
+		}
+
+		Deque<CompletableFuture<ProbeResult>> window = new ArrayDeque<>();
+		Deque<Integer> offered = new ArrayDeque<>();
+		for (Integer candidate : candidates) {
+			if (window.size() == WINDOW) {
+				collect(version, window.poll(), offered.poll(), supported);
+			}
+			window.add(probeAsync(version, Collections.singletonList(candidate)));
+			offered.add(candidate);
+		}
+
+		while (!window.isEmpty()) {
+			collect(version, window.poll(), offered.poll(), supported);
+		}
+
+		return supported;
+	}
+
+	/**
+	 * Waits for result of probe and adds candidate to supported cipher suites,
+	 * if it was accepted
+	 *
+	 * @param version offered version
+	 * @param future future result of probe
+	 * @param candidate offered cipher suite
+	 * @param supported supported cipher suites
+	 */
+	private void collect(TlsVersion version, CompletableFuture<ProbeResult> future, int candidate, List<Integer> supported) {
+		ProbeResult result = future.join();
+		if (result.isAccepted(version) && result.getCipherSuite() == candidate) {
+			supported.add(candidate);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package cz.ondrejsmetak.tls;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Buffers and parsers of one engine loop, that are reused by its probes, so
+ * no large buffer is allocated per probe. Each probe takes what it needs,
+ * when it's started, and returns it, when it's finished. Pools grow only up
+ * to number of probes in flight. Used only by thread of the loop, so it isn't
+ * thread-safe.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+class ProbeBuffers {
+
+	/**
+	 * Maximum length of ClientHello
+	 */
+	private static final int MAX_HELLO_LENGTH = 4096;
+
+	/**
+	 * Initial size of buffer for server's answer. ServerHello usually fits,
+	 * larger buffer is taken only if needed.
+	 */
+	private static final int SMALL_INPUT = 2048;
+
+	/**
+	 * Size of buffer for server's answer, into which the longest record fits
+	 */
+	static final int LARGE_INPUT = ServerHelloParser.RECORD_HEADER_LENGTH + ServerHelloParser.MAX_RECORD_LENGTH;
+
+	private final Deque<ByteBuffer> outputs = new ArrayDeque<>();
+	private final Deque<ByteBuffer> smallInputs = new ArrayDeque<>();
+	private final Deque<ByteBuffer> largeInputs = new ArrayDeque<>();
+	private final Deque<ServerHelloParser> serverHelloParsers = new ArrayDeque<>();
+	private final Deque<CertificateParser> certificateParsers = new ArrayDeque<>();
+
+	/**
+	 * Takes empty buffer for ClientHello
+	 *
+	 * @return buffer ready for writing
+	 */
+	ByteBuffer takeOutput() {
+		ByteBuffer buffer = outputs.poll();
+		return buffer == null ? ByteBuffer.allocate(MAX_HELLO_LENGTH) : buffer;
+	}
+
+	/**
+	 * Takes empty buffer for server's answer
+	 *
+	 * @param large true, if the longest record must fit
+	 * @return buffer ready for writing
+	 */
+	ByteBuffer takeInput(boolean large) {
+		ByteBuffer buffer = large ? largeInputs.poll() : smallInputs.poll();
+		if (buffer == null) {
+			buffer = ByteBuffer.allocate(large ? LARGE_INPUT : SMALL_INPUT);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Takes parser of server's answer, reset for a new handshake
+	 *
+	 * @param certificates true, if parser must read also certificates
+	 * @return parser
+	 */
+	ServerHelloParser takeParser(boolean certificates) {
+		ServerHelloParser parser = certificates ? certificateParsers.poll() : serverHelloParsers.poll();
+		if (parser == null) {
+			parser = certificates ? new CertificateParser() : new ServerHelloParser();
+		}
+		parser.reset();
+		return parser;
+	}
+
+	/**
+	 * Returns buffer taken by {@link #takeOutput()} or
+	 * {@link #takeInput(boolean)}
+	 *
+	 * @param buffer buffer, that is no longer used, or null
+	 */
+	void release(ByteBuffer buffer) {
+		if (buffer == null) {
+			return;
+		}
+
+		buffer.clear();
+		if (buffer.capacity() == MAX_HELLO_LENGTH) {
+			outputs.add(buffer);
+		} else if (buffer.capacity() == LARGE_INPUT) {
+			largeInputs.add(buffer);
+		} else {
+			smallInputs.add(buffer);
+		}
+	}
+
+	/**
+	 * Returns parser taken by {@link #takeParser(boolean)}
+	 *
+	 * @param parser parser, that is no longer used, or null
+	 */
+	void release(ServerHelloParser parser) {
+		if (parser instanceof CertificateParser) {
+			certificateParsers.add((CertificateParser) parser);
+		} else if (parser != null) {
+			serverHelloParsers.add(parser);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package cz.ondrejsmetak.tls;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of one handshake probe
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class ProbeResult {
+
+	/**
+	 * Type of result
+	 */
+	public enum Status {
+		/**
+		 * Server answered with ServerHello (or HelloRetryRequest)
+		 */
+		ACCEPTED,
+		/**
+		 * Server answered with alert or closed connection, so it doesn't
+		 * support anything of the offered
+		 */
+		REJECTED,
+		/**
+		 * Connection can't be made, timed out or server answered with
+		 * something unexpected
+		 */
+		FAILED
+	}
+
+	private static final ProbeResult REJECTED = new ProbeResult(Status.REJECTED, null, -1, Collections.emptyList());
+	private static final ProbeResult FAILED = new ProbeResult(Status.FAILED, null, -1, Collections.emptyList());
+
+	/**
+	 * Type of this result
+	 */
+	private final Status status;
+
+	/**
+	 * Version chosen by server, null if unknown
+	 */
+	private final TlsVersion version;
+
+	/**
+	 * IANA code of cipher suite chosen by server, -1 if unknown
+	 */
+	private final int cipherSuite;
+
+	/**
+	 * DER encoded certificates sent by server (leaf first), empty if they
+	 * weren't read
+	 */
+	private final List<byte[]> certificates;
+
+	private ProbeResult(Status status, TlsVersion version, int cipherSuite, List<byte[]> certificates) {
+		this.status = status;
+		this.version = version;
+		this.cipherSuite = cipherSuite;
+		this.certificates = certificates;
+	}
+
+	public static ProbeResult getAccepted(TlsVersion version, int cipherSuite) {
+		return new ProbeResult(Status.ACCEPTED, version, cipherSuite, Collections.emptyList());
+	}
+
+	public static ProbeResult getAccepted(TlsVersion version, int cipherSuite, List<byte[]> certificates) {
+		return new ProbeResult(Status.ACCEPTED, version, cipherSuite, certificates);
+	}
+
+	public static ProbeResult getRejected() {
+		return REJECTED;
+	}
+
+	public static ProbeResult getFailed() {
+		return FAILED;
+	}
+
+	public boolean isAccepted() {
+		return status == Status.ACCEPTED;
+	}
+
+	public boolean isRejected() {
+		return status == Status.REJECTED;
+	}
+
+	public boolean isFailed() {
+		return status == Status.FAILED;
+	}
+
+	/**
+	 * Was the handshake accepted in the given version?
+	 *
+	 * @param expected expected version
+	 * @return true, if server chose the given version, false otherwise
+	 */
+	public boolean isAccepted(TlsVersion expected) {
+		return isAccepted() && version == expected;
+	}
+
+	public TlsVersion getVersion() {
+		return version;
+	}
+
+	public int getCipherSuite() {
+		return cipherSuite;
+	}
+
+	public List<byte[]> getCertificates() {
+		return certificates;
+	}
+
+	@Override
+	public String toString() {
+		return isAccepted() ? String.format("%s %s 0x%04X", status, version, cipherSuite) : status.toString();
+	}
+}
@@ -0,0 +1,271 @@
+package cz.ondrejsmetak.tls;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * State machine of one handshake probe, driven by the thread of engine loop:
+ * connect, write ClientHello, read until server chooses version and cipher
+ * suite. Result is passed to the future.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+class ProbeTask {
+
+	/**
+	 * Address of target
+	 */
+	private final InetSocketAddress address;
+
+	/**
+	 * Builder of ClientHello
+	 */
+	private final ClientHelloBuilder builder;
+
+	/**
+	 * Offered version
+	 */
+	private final TlsVersion version;
+
+	/**
+	 * IANA codes of offered cipher suites
+	 */
+	private final List<Integer> cipherSuites;
+
+	/**
+	 * Must be read also certificates?
+	 */
+	private final boolean certificates;
+
+	/**
+	 * Maximum duration of probe in milliseconds, counted from its start
+	 */
+	private final int timeout;
+
+	/**
+	 * Result of probe
+	 */
+	private final CompletableFuture<ProbeResult> future = new CompletableFuture<>();
+
+	/**
+	 * Deadline of probe in nanoseconds, known when probe is started
+	 */
+	private long deadline;
+
+	/**
+	 * Buffers of loop, that drives this probe
+	 */
+	private ProbeBuffers buffers;
+
+	/**
+	 * ClientHello, ready for writing
+	 */
+	private ByteBuffer out;
+
+	/**
+	 * Buffer for server's answer
+	 */
+	private ByteBuffer in;
+
+	/**
+	 * Parser of server's answer
+	 */
+	private ServerHelloParser parser;
+
+	private SocketChannel channel;
+
+	/**
+	 * Was connection made?
+	 */
+	private boolean connected = false;
+
+	/**
+	 * Creates new task. Nothing is allocated until task is started.
+	 *
+	 * @param address address of target
+	 * @param builder builder of ClientHello
+	 * @param version offered version
+	 * @param cipherSuites IANA codes of offered cipher suites
+	 * @param certificates true, if certificates must be read
+	 * @param timeout maximum duration of probe in milliseconds
+	 */
+	public ProbeTask(InetSocketAddress address, ClientHelloBuilder builder, TlsVersion version, List<Integer> cipherSuites,
+			boolean certificates, int timeout) {
+		this.address = address;
+		this.builder = builder;
+		this.version = version;
+		this.cipherSuites = new ArrayList<>(cipherSuites);
+		this.certificates = certificates;
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Takes buffers, builds ClientHello, opens channel and starts connecting
+	 *
+	 * @param selector selector of engine loop
+	 * @param buffers buffers of engine loop
+	 */
+	public void start(Selector selector, ProbeBuffers buffers) {
+		this.buffers = buffers;
+		deadline = System.nanoTime() + timeout * 1_000_000L; //time spent in queue doesn't count
+
+		try {
+			out = buffers.takeOutput();
+			builder.build(out, version, cipherSuites);
+			in = buffers.takeInput(false);
+			parser = buffers.takeParser(certificates);
+
+			channel = SocketChannel.open();
+			channel.configureBlocking(false);
+			if (channel.connect(address)) {
+				connected = true;
+				channel.register(selector, SelectionKey.OP_WRITE, this);
+			} else {
+				channel.register(selector, SelectionKey.OP_CONNECT, this);
+			}
+		} catch (IOException | RuntimeException ex) {
+			complete(ProbeResult.getFailed()); //also too long ClientHello, task must not stay unfinished
+		}
+	}
+
+	/**
+	 * Moves state machine, when channel is ready
+	 *
+	 * @param key key of channel in selector
+	 */
+	public void onReady(SelectionKey key) {
+		try {
+			if (key.isConnectable()) {
+				if (!channel.finishConnect()) {
+					return;
+				}
+				connected = true;
+				key.interestOps(SelectionKey.OP_WRITE);
+			}
+
+			if (key.isWritable() || (connected && out.hasRemaining())) {
+				channel.write(out);
+				if (!out.hasRemaining()) {
+					key.interestOps(SelectionKey.OP_READ);
+				}
+			}
+
+			if (key.isReadable()) {
+				read();
+			}
+		} catch (IOException ex) {
+			/**
+			 * Some servers reset connection instead of sending alert
+			 */
+			complete(connected ? ProbeResult.getRejected() : ProbeResult.getFailed());
+		}
+	}
+
+	/**
+	 * Reads all the available data and parses them
+	 *
+	 * @throws IOException in case of any error
+	 */
+	private void read() throws IOException {
+		while (!isDone()) {
+			int read = channel.read(in);
+			if (read == -1) {
+				complete(ProbeResult.getRejected()); //server closed connection, it doesn't like our offer
+				return;
+			}
+
+			if (read == 0) {
+				return; //wait for more data
+			}
+
+			in.flip();
+			ServerHelloParser.State state = parser.parse(in);
+			in.compact();
+
+			switch (state) {
+				case SERVER_HELLO:
+					complete(parser.getResult());
+					break;
+				case ALERT:
+					complete(ProbeResult.getRejected());
+					break;
+				case UNEXPECTED:
+					complete(ProbeResult.getFailed());
+					break;
+				default:
+					if (!in.hasRemaining() && in.capacity() < ProbeBuffers.LARGE_INPUT) {
+						grow();
+					}
+					break; //more data are needed
+			}
+		}
+	}
+
+	/**
+	 * Enlarges buffer, so the longest possible record fits
+	 */
+	private void grow() {
+		ByteBuffer larger = buffers.takeInput(true);
+		in.flip();
+		larger.put(in);
+		buffers.release(in);
+		in = larger;
+	}
+
+	/**
+	 * Ends probe, because its deadline passed
+	 */
+	public void expire() {
+		complete(ProbeResult.getFailed());
+	}
+
+	/**
+	 * Ends probe with the given result, closes channel and returns buffers to
+	 * loop. Only the first result is used.
+	 *
+	 * @param result result of probe
+	 */
+	public void complete(ProbeResult result) {
+		if (isDone()) {
+			return;
+		}
+
+		try {
+			if (channel != null) {
+				channel.close(); //also cancels key in selector
+			}
+		} catch (IOException ex) {
+			//nothing to do, probe has result anyway
+		}
+
+		if (buffers != null) {
+			buffers.release(out);
+			buffers.release(in);
+			buffers.release(parser);
+			out = null;
+			in = null;
+			parser = null;
+		}
+
+		future.complete(result);
+	}
+
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	public long getDeadline() {
+		return deadline;
+	}
+
+	public CompletableFuture<ProbeResult> getFuture() {
+		return future;
+	}
+}
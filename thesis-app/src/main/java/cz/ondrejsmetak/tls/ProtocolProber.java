@@ -0,0 +1,82 @@
+package cz.ondrejsmetak.tls;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Finds out versions of protocol supported by target. One ClientHello, which
+ * offers all the known cipher suites, is sent per version and all of them are
+ * in flight at once.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class ProtocolProber {
+
+	/**
+	 * All the SSLv2 cipher specs (RC4, RC2, IDEA, DES and 3DES, also export
+	 * ones)
+	 */
+	private static final List<Integer> SSLV2_CIPHER_SPECS = Arrays.asList(0x010080, 0x020080, 0x030080, 0x040080,
+			0x050080, 0x060040, 0x0700C0);
+
+	/**
+	 * Probe of target
+	 */
+	private final TlsProbe probe;
+
+	/**
+	 * Creates new prober, that uses the given probe
+	 *
+	 * @param probe probe of target
+	 */
+	public ProtocolProber(TlsProbe probe) {
+		this.probe = probe;
+	}
+
+	/**
+	 * Probes all the versions of protocol
+	 *
+	 * @param cipherSuites IANA codes of offered cipher suites
+	 * @return result of probe for each version
+	 */
+	public Map<TlsVersion, ProbeResult> probe(List<Integer> cipherSuites) {
+		Map<TlsVersion, CompletableFuture<ProbeResult>> futures = new EnumMap<>(TlsVersion.class);
+		for (TlsVersion version : TlsVersion.values()) {
+			futures.put(version, probe.probeAsync(version, getOffered(version, cipherSuites)));
+		}
+
+		Map<TlsVersion, ProbeResult> done = new EnumMap<>(TlsVersion.class);
+		for (Map.Entry<TlsVersion, CompletableFuture<ProbeResult>> entry : futures.entrySet()) {
+			done.put(entry.getKey(), entry.getValue().join());
+		}
+
+		return done;
+	}
+
+	/**
+	 * Returns cipher suites (or cipher specs), that are offered in the given
+	 * version
+	 *
+	 * @param version version of protocol
+	 * @param cipherSuites IANA codes of all the known cipher suites
+	 * @return codes of offered cipher suites
+	 */
+	private List<Integer> getOffered(TlsVersion version, List<Integer> cipherSuites) {
+		if (version == TlsVersion.SSLv2) {
+			return SSLV2_CIPHER_SPECS;
+		}
+
+		List<Integer> offered = new ArrayList<>();
+		for (Integer cipherSuite : cipherSuites) {
+			if (version.isApplicable(cipherSuite)) {
+				offered.add(cipherSuite);
+			}
+		}
+
+		return offered;
+	}
+}
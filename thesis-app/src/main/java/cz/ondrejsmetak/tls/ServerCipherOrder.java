@@ -0,0 +1,23 @@
+package cz.ondrejsmetak.tls;
+
+/**
+ * Whose order of cipher suites decides, which cipher suite is negotiated
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public enum ServerCipherOrder {
+
+	/**
+	 * Server chooses by its own order, no matter how client orders cipher
+	 * suites
+	 */
+	ENFORCED,
+	/**
+	 * Server chooses the first supported cipher suite offered by client
+	 */
+	CLIENT,
+	/**
+	 * Handshakes didn't tell
+	 */
+	UNKNOWN
+}
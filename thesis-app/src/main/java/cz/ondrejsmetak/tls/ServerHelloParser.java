@@ -0,0 +1,319 @@
+package cz.ondrejsmetak.tls;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Parses just enough of server's answer to learn chosen version and cipher
+ * suite. Data can be passed in any pieces, as they come from network. Parsers
+ * are pooled by loops of engine (see {@link ProbeBuffers}) and reset before
+ * each handshake. Subclasses can continue with messages, that follow after
+ * ServerHello.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class ServerHelloParser {
+
+	/**
+	 * State of parsing
+	 */
+	public enum State {
+		/**
+		 * More data are needed
+		 */
+		INCOMPLETE,
+		/**
+		 * ServerHello was parsed
+		 */
+		SERVER_HELLO,
+		/**
+		 * Server answered with fatal alert
+		 */
+		ALERT,
+		/**
+		 * Server answered with something, what isn't ServerHello
+		 */
+		UNEXPECTED
+	}
+
+	/**
+	 * Types of record and handshake message
+	 */
+	private static final int RECORD_ALERT = 21;
+	private static final int RECORD_HANDSHAKE = 22;
+	private static final int HANDSHAKE_SERVER_HELLO = 2;
+
+	/**
+	 * Level of alert, that doesn't end connection, and alert, that ends
+	 * connection even with this level
+	 */
+	private static final int ALERT_LEVEL_WARNING = 1;
+	private static final int ALERT_CLOSE_NOTIFY = 0;
+
+	/**
+	 * Types of SSLv2 messages
+	 */
+	private static final int SSLV2_ERROR = 0;
+	private static final int SSLV2_SERVER_HELLO = 4;
+
+	/**
+	 * Length of SSLv2 header and fixed part of SSLv2 ServerHello
+	 */
+	private static final int SSLV2_SERVER_HELLO_LENGTH = 2 + 11;
+
+	/**
+	 * Type of extension, that contains negotiated version in TLS 1.3
+	 */
+	private static final int EXTENSION_SUPPORTED_VERSIONS = 0x002b;
+
+	/**
+	 * Maximum length of record (plaintext and allowed expansion)
+	 */
+	public static final int MAX_RECORD_LENGTH = 16384 + 2048;
+
+	/**
+	 * Length of record header
+	 */
+	public static final int RECORD_HEADER_LENGTH = 5;
+
+	/**
+	 * Handshake messages collected from records, until whole ServerHello is
+	 * available
+	 */
+	protected final ByteBuffer handshake;
+
+	/**
+	 * Chosen version (code used on wire)
+	 */
+	private int version;
+
+	/**
+	 * Chosen cipher suite
+	 */
+	private int cipherSuite;
+
+	/**
+	 * Creates parser, which collects just ServerHello
+	 */
+	public ServerHelloParser() {
+		this(4096);
+	}
+
+	/**
+	 * Creates parser with the given size of buffer for handshake messages
+	 *
+	 * @param capacity size of buffer in bytes
+	 */
+	protected ServerHelloParser(int capacity) {
+		handshake = ByteBuffer.allocate(capacity);
+	}
+
+	/**
+	 * Prepares parser for a new handshake
+	 */
+	public void reset() {
+		handshake.clear();
+		version = -1;
+		cipherSuite = -1;
+	}
+
+	/**
+	 * Consumes all complete records from the given buffer. Incomplete record
+	 * stays in buffer, so caller can compact buffer and read more data.
+	 *
+	 * @param in buffer with data from server, ready for reading
+	 * @return state of parsing
+	 */
+	public State parse(ByteBuffer in) {
+		if (in.remaining() > 0 && (in.get(in.position()) & 0x80) != 0 && handshake.position() == 0) {
+			return parseSslv2(in); //no TLS record starts with this byte
+		}
+
+		while (in.remaining() >= RECORD_HEADER_LENGTH) {
+			int start = in.position();
+			int type = in.get(start) & 0xFF;
+			int length = in.getShort(start + 3) & 0xFFFF;
+
+			if (type != RECORD_ALERT && type != RECORD_HANDSHAKE) {
+				return State.UNEXPECTED; //also SSLv2 answer or non-TLS service
+			}
+
+			if (length > MAX_RECORD_LENGTH) {
+				return State.UNEXPECTED;
+			}
+
+			if (in.remaining() < RECORD_HEADER_LENGTH + length) {
+				return State.INCOMPLETE;
+			}
+
+			if (type == RECORD_ALERT) {
+				if (!isWarning(in, start, length)) {
+					return State.ALERT;
+				}
+				in.position(start + RECORD_HEADER_LENGTH + length);
+				continue; //for example unrecognized_name, some servers send it before ServerHello
+			}
+
+			/**
+			 * Only the first message is needed, rest of record is ignored
+			 */
+			int copy = Math.min(length, handshake.remaining());
+			ByteBuffer fragment = in.duplicate();
+			fragment.position(start + RECORD_HEADER_LENGTH).limit(start + RECORD_HEADER_LENGTH + copy);
+			handshake.put(fragment);
+			in.position(start + RECORD_HEADER_LENGTH + length);
+
+			State state = parseHandshake();
+			if (state != State.INCOMPLETE) {
+				return state;
+			}
+		}
+
+		return State.INCOMPLETE;
+	}
+
+	/**
+	 * Is alert in the given record only a warning? Close notify always ends
+	 * connection, whatever level it has.
+	 *
+	 * @param in buffer with data from server
+	 * @param start position of record
+	 * @param length length of record
+	 * @return true, if alert is a warning, false if it's fatal
+	 */
+	private boolean isWarning(ByteBuffer in, int start, int length) {
+		if (length < 2) {
+			return false;
+		}
+
+		int level = in.get(start + RECORD_HEADER_LENGTH) & 0xFF;
+		int description = in.get(start + RECORD_HEADER_LENGTH + 1) & 0xFF;
+		return level == ALERT_LEVEL_WARNING && description != ALERT_CLOSE_NOTIFY;
+	}
+
+	/**
+	 * Parses SSLv2 answer. Only the fixed part of ServerHello is needed, so
+	 * cipher suite stays unknown.
+	 *
+	 * @param in buffer with data from server, ready for reading
+	 * @return state of parsing
+	 */
+	private State parseSslv2(ByteBuffer in) {
+		int start = in.position();
+		if (in.remaining() < 3) {
+			return State.INCOMPLETE;
+		}
+
+		int type = in.get(start + 2) & 0xFF;
+		if (type == SSLV2_ERROR) {
+			return State.ALERT;
+		}
+
+		if (type != SSLV2_SERVER_HELLO) {
+			return State.UNEXPECTED;
+		}
+
+		if (in.remaining() < SSLV2_SERVER_HELLO_LENGTH) {
+			return State.INCOMPLETE;
+		}
+
+		int cipherSpecsLength = in.getShort(start + 9) & 0xFFFF;
+		if (cipherSpecsLength == 0) {
+			return State.ALERT; //nothing of offered cipher specs is supported
+		}
+
+		version = in.getShort(start + 5) & 0xFFFF;
+		in.position(in.limit()); //rest of message isn't needed
+		return State.SERVER_HELLO;
+	}
+
+	/**
+	 * Parses ServerHello, if the whole message is already collected
+	 *
+	 * @return state of parsing
+	 */
+	private State parseHandshake() {
+		if (handshake.position() < 4) {
+			return State.INCOMPLETE;
+		}
+
+		int type = handshake.get(0) & 0xFF;
+		int length = ((handshake.get(1) & 0xFF) << 16) | ((handshake.get(2) & 0xFF) << 8) | (handshake.get(3) & 0xFF);
+
+		if (type != HANDSHAKE_SERVER_HELLO || length + 4 > handshake.capacity()) {
+			return State.UNEXPECTED;
+		}
+
+		if (handshake.position() < length + 4) {
+			return State.INCOMPLETE;
+		}
+
+		ByteBuffer body = handshake.duplicate();
+		body.flip();
+		body.limit(length + 4).position(4); //next messages can follow in buffer
+
+		try {
+			version = body.getShort() & 0xFFFF;
+			body.position(body.position() + 32); //random
+			int sessionIdLength = body.get() & 0xFF;
+			body.position(body.position() + sessionIdLength); //session id
+			cipherSuite = body.getShort() & 0xFFFF;
+			body.get(); //compression
+
+			if (body.remaining() >= 2) {
+				int extensionsLength = body.getShort() & 0xFFFF;
+				int end = body.position() + extensionsLength;
+				while (body.position() + 4 <= end) {
+					int extension = body.getShort() & 0xFFFF;
+					int extensionLength = body.getShort() & 0xFFFF;
+					if (extension == EXTENSION_SUPPORTED_VERSIONS && extensionLength == 2) {
+						version = body.getShort(body.position()) & 0xFFFF;
+					}
+					body.position(body.position() + extensionLength);
+				}
+			}
+		} catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException ex) {
+			return State.UNEXPECTED; //malformed message
+		}
+
+		return parseFollowing(length + 4);
+	}
+
+	/**
+	 * Parses messages, that follow after ServerHello. By default, nothing
+	 * more is needed.
+	 *
+	 * @param offset position of the first message after ServerHello
+	 * @return state of parsing
+	 */
+	protected State parseFollowing(int offset) {
+		return State.SERVER_HELLO;
+	}
+
+	/**
+	 * Returns result of accepted handshake
+	 *
+	 * @return accepted result
+	 */
+	public ProbeResult getResult() {
+		return ProbeResult.getAccepted(getVersion(), cipherSuite);
+	}
+
+	/**
+	 * Returns version chosen by server
+	 *
+	 * @return version or null, if version is unknown
+	 */
+	public TlsVersion getVersion() {
+		return TlsVersion.fromCode(version);
+	}
+
+	/**
+	 * Returns cipher suite chosen by server
+	 *
+	 * @return IANA code of cipher suite
+	 */
+	public int getCipherSuite() {
+		return cipherSuite;
+	}
+}
@@ -0,0 +1,81 @@
+package cz.ondrejsmetak.tls;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Hashed timer wheel for deadlines of probes. Adding a deadline and expiring
+ * deadlines of one tick are cheap, no matter how many probes are in flight.
+ * Instance isn't thread-safe, it is used only by the thread of one engine
+ * loop.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+class TimerWheel {
+
+	/**
+	 * Length of one tick in milliseconds
+	 */
+	public static final int TICK = 50;
+
+	/**
+	 * Number of slots, one turn of wheel takes (TICK * SLOTS) milliseconds
+	 */
+	private static final int SLOTS = 512;
+
+	/**
+	 * Tasks, whose deadline falls into tick with the same index (modulo number
+	 * of slots)
+	 */
+	private final List<List<ProbeTask>> slots = new ArrayList<>(SLOTS);
+
+	/**
+	 * Tick, which will be expired next
+	 */
+	private long current;
+
+	public TimerWheel() {
+		for (int i = 0; i < SLOTS; i++) {
+			slots.add(new ArrayList<>());
+		}
+		current = getTick(System.nanoTime());
+	}
+
+	/**
+	 * Adds task, that will be expired after its deadline passes
+	 *
+	 * @param task task with deadline
+	 */
+	public void add(ProbeTask task) {
+		long tick = Math.max(getTick(task.getDeadline()), current);
+		slots.get(Math.floorMod(tick, SLOTS)).add(task);
+	}
+
+	/**
+	 * Expires all the tasks, whose tick passed completely until now (so tasks
+	 * expire at most one tick late). Tasks, which are already done, are just
+	 * removed.
+	 *
+	 * @param now current time in nanoseconds
+	 */
+	public void expire(long now) {
+		long last = getTick(now) - 1;
+		for (; current <= last; current++) {
+			Iterator<ProbeTask> iterator = slots.get(Math.floorMod(current, SLOTS)).iterator();
+			while (iterator.hasNext()) {
+				ProbeTask task = iterator.next();
+				if (task.isDone()) {
+					iterator.remove();
+				} else if (getTick(task.getDeadline()) <= current) {
+					iterator.remove();
+					task.expire();
+				} //otherwise deadline is in some of next turns of wheel
+			}
+		}
+	}
+
+	private long getTick(long nanos) {
+		return nanos / 1_000_000L / TICK;
+	}
+}
@@ -0,0 +1,114 @@
+package cz.ondrejsmetak.tls;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends ClientHello to the target and reads answer, until server chooses
+ * version and cipher suite. Probes are driven by the shared engine, so each
+ * probe has a deadline and many probes can be in flight at once. One instance
+ * should be used for all probes of one target. Instance is thread-safe.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class TlsProbe {
+
+	/**
+	 * Address of target
+	 */
+	private final InetSocketAddress address;
+
+	/**
+	 * Maximum duration of one probe in milliseconds
+	 */
+	private final int timeout;
+
+	/**
+	 * Builder of ClientHello
+	 */
+	private final ClientHelloBuilder builder;
+
+	/**
+	 * Number of handshakes started by this probe
+	 */
+	private final AtomicInteger handshakes = new AtomicInteger();
+
+	/**
+	 * Creates new probe of the given target
+	 *
+	 * @param host host name or IP address of target
+	 * @param port port of target
+	 * @param timeout maximum duration of one probe in milliseconds
+	 */
+	public TlsProbe(String host, int port, int timeout) {
+		this.address = new InetSocketAddress(host, port); //resolved only once
+		this.timeout = timeout;
+		this.builder = new ClientHelloBuilder(host);
+	}
+
+	/**
+	 * Offers the given cipher suites in the given version and waits, what
+	 * server chooses
+	 *
+	 * @param version offered version
+	 * @param cipherSuites IANA codes of offered cipher suites
+	 * @return result of probe
+	 */
+	public ProbeResult probe(TlsVersion version, List<Integer> cipherSuites) {
+		return probeAsync(version, cipherSuites).join();
+	}
+
+	/**
+	 * Offers the given cipher suites in the given version, without waiting for
+	 * server's answer
+	 *
+	 * @param version offered version
+	 * @param cipherSuites IANA codes of offered cipher suites
+	 * @return future result of probe
+	 */
+	public CompletableFuture<ProbeResult> probeAsync(TlsVersion version, List<Integer> cipherSuites) {
+		return submit(version, cipherSuites, false);
+	}
+
+	/**
+	 * Offers the given cipher suites in the given version and reads answer
+	 * until Certificate message. Certificates are part of accepted result.
+	 *
+	 * @param version offered version (TLS 1.2 at most, because TLS 1.3
+	 * encrypts certificates)
+	 * @param cipherSuites IANA codes of offered cipher suites
+	 * @return future result of probe
+	 */
+	public CompletableFuture<ProbeResult> fetchCertificatesAsync(TlsVersion version, List<Integer> cipherSuites) {
+		return submit(version, cipherSuites, true);
+	}
+
+	/**
+	 * Submits probe to the engine. ClientHello is built by the engine, when
+	 * probe is started, into buffer reused by many probes.
+	 *
+	 * @param version offered version
+	 * @param cipherSuites IANA codes of offered cipher suites
+	 * @param certificates true, if certificates must be read
+	 * @return future result of probe
+	 */
+	private CompletableFuture<ProbeResult> submit(TlsVersion version, List<Integer> cipherSuites, boolean certificates) {
+		if (address.isUnresolved() || cipherSuites.isEmpty()) {
+			return CompletableFuture.completedFuture(ProbeResult.getFailed());
+		}
+
+		handshakes.incrementAndGet();
+		return TlsProbeEngine.getInstance().submit(new ProbeTask(address, builder, version, cipherSuites, certificates, timeout));
+	}
+
+	/**
+	 * Returns number of handshakes started by this probe
+	 *
+	 * @return number of handshakes
+	 */
+	public int getHandshakes() {
+		return handshakes.get();
+	}
+}
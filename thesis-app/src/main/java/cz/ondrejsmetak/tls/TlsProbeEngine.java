@@ -0,0 +1,192 @@
+package cz.ondrejsmetak.tls;
+
+import cz.ondrejsmetak.ConfigurationRegister;
+import cz.ondrejsmetak.tool.Log;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives all the native handshake probes of the application. There is one
+ * loop (thread with selector and timer wheel) per processor core, each loop
+ * drives many non-blocking probes at once, so number of probes in flight isn't
+ * limited by number of threads, but only by configured maximum.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class TlsProbeEngine {
+
+	private static TlsProbeEngine instance = null;
+
+	/**
+	 * Loops of this engine
+	 */
+	private final Loop[] loops;
+
+	/**
+	 * Index of loop, which gets next probe
+	 */
+	private final AtomicInteger next = new AtomicInteger();
+
+	/**
+	 * Number of probes in flight
+	 */
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	/**
+	 * Maximum number of probes in flight, each of them needs one socket
+	 */
+	private final int maxInFlight;
+
+	/**
+	 * Probes waiting, until number of probes in flight drops under maximum
+	 */
+	private final Queue<ProbeTask> waiting = new ConcurrentLinkedQueue<>();
+
+	protected TlsProbeEngine() {
+		maxInFlight = ConfigurationRegister.getInstance().getNativeMaxInFlight();
+		loops = new Loop[Runtime.getRuntime().availableProcessors()];
+		for (int i = 0; i < loops.length; i++) {
+			loops[i] = new Loop(i);
+		}
+	}
+
+	public static synchronized TlsProbeEngine getInstance() {
+		if (instance == null) {
+			instance = new TlsProbeEngine();
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Submits the given probe. When too many probes are in flight, probe waits
+	 * in queue, so sockets (file descriptors) aren't exhausted.
+	 *
+	 * @param task task of probe
+	 * @return future result of probe
+	 */
+	CompletableFuture<ProbeResult> submit(ProbeTask task) {
+		waiting.add(task);
+		startWaiting();
+		return task.getFuture();
+	}
+
+	/**
+	 * Starts waiting probes, while number of probes in flight is under maximum
+	 */
+	private void startWaiting() {
+		while (!waiting.isEmpty()) {
+			int current = inFlight.get();
+			if (current >= maxInFlight) {
+				return; //probe, which finishes, starts the next one
+			}
+			if (!inFlight.compareAndSet(current, current + 1)) {
+				continue;
+			}
+
+			ProbeTask task = waiting.poll();
+			if (task == null) {
+				inFlight.decrementAndGet(); //taken by other thread meanwhile
+				continue;
+			}
+
+			task.getFuture().whenComplete((result, ex) -> {
+				inFlight.decrementAndGet();
+				startWaiting();
+			});
+			loops[Math.floorMod(next.getAndIncrement(), loops.length)].submit(task);
+		}
+	}
+
+	/**
+	 * Returns number of probes in flight
+	 *
+	 * @return number of probes
+	 */
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	/**
+	 * One thread with selector, that drives its probes
+	 */
+	private static class Loop implements Runnable {
+
+		/**
+		 * Selector of all the channels of this loop
+		 */
+		private final Selector selector;
+
+		/**
+		 * Deadlines of probes of this loop
+		 */
+		private final TimerWheel wheel = new TimerWheel();
+
+		/**
+		 * Probes submitted by other threads, not started yet
+		 */
+		private final Queue<ProbeTask> pending = new ConcurrentLinkedQueue<>();
+
+		/**
+		 * Buffers and parsers reused by probes of this loop
+		 */
+		private final ProbeBuffers buffers = new ProbeBuffers();
+
+		public Loop(int index) {
+			try {
+				selector = Selector.open();
+			} catch (IOException ex) {
+				throw new UncheckedIOException(ex);
+			}
+
+			Thread thread = new Thread(this, "tls-probe-engine-" + index);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		/**
+		 * Passes task to the thread of this loop
+		 *
+		 * @param task task of probe
+		 */
+		public void submit(ProbeTask task) {
+			pending.add(task);
+			selector.wakeup();
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				try {
+					selector.select(TimerWheel.TICK);
+
+					ProbeTask task;
+					while ((task = pending.poll()) != null) {
+						task.start(selector, buffers);
+						wheel.add(task);
+					}
+
+					Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+					while (iterator.hasNext()) {
+						SelectionKey key = iterator.next();
+						iterator.remove();
+						if (key.isValid()) {
+							((ProbeTask) key.attachment()).onReady(key);
+						}
+					}
+
+					wheel.expire(System.nanoTime());
+				} catch (IOException | RuntimeException ex) {
+					Log.debugException(ex); //loop must survive, otherwise its probes never finish
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package cz.ondrejsmetak.tls;
+
+/**
+ * Versions of SSL/TLS protocol, that can be probed natively
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public enum TlsVersion {
+
+	SSLv2(0x0002, "SSLv2"),
+	SSLv3(0x0300, "SSLv3"),
+	TLSv10(0x0301, "TLSv1.0"),
+	TLSv11(0x0302, "TLSv1.1"),
+	TLSv12(0x0303, "TLSv1.2"),
+	TLSv13(0x0304, "TLSv1.3");
+
+	/**
+	 * Code of version used on wire
+	 */
+	private final int code;
+
+	/**
+	 * Human representation of version
+	 */
+	private final String name;
+
+	private TlsVersion(int code, String name) {
+		this.code = code;
+		this.name = name;
+	}
+
+	public int getCode() {
+		return code;
+	}
+
+	/**
+	 * Returns version with the given code
+	 *
+	 * @param code code of version used on wire
+	 * @return version or null, if code is unknown
+	 */
+	public static TlsVersion fromCode(int code) {
+		for (TlsVersion version : values()) {
+			if (version.code == code) {
+				return version;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Can be the cipher suite with the given IANA code negotiated in this
+	 * version? TLS 1.3 has its own cipher suites, that can't be used in older
+	 * versions and vice versa. SSLv2 has its own cipher specs, which have
+	 * no IANA code at all.
+	 *
+	 * @param cipherSuite IANA code of cipher suite
+	 * @return true, if cipher suite can be negotiated, false otherwise
+	 */
+	public boolean isApplicable(int cipherSuite) {
+		if (this == SSLv2) {
+			return false;
+		}
+
+		boolean tls13CipherSuite = (cipherSuite & 0xFF00) == 0x1300;
+		return this == TLSv13 ? tls13CipherSuite : !tls13CipherSuite;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,69 @@
+package cz.ondrejsmetak.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output of command, that was run from command line
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+public class CommandOutput {
+
+	/**
+	 * Lines printed by command (both standard and error output)
+	 */
+	private final List<String> lines;
+
+	/**
+	 * Reason, why was command killed before it finished, or null
+	 */
+	private final String timeoutReason;
+
+	/**
+	 * Creates new output of finished command
+	 *
+	 * @param lines lines printed by command
+	 */
+	public CommandOutput(List<String> lines) {
+		this(lines, null);
+	}
+
+	/**
+	 * Creates new output of command, that was killed before it finished
+	 *
+	 * @param lines lines printed by command before it was killed
+	 * @param timeoutReason reason, why was command killed
+	 */
+	public CommandOutput(List<String> lines, String timeoutReason) {
+		this.lines = lines;
+		this.timeoutReason = timeoutReason;
+	}
+
+	public List<String> getLines() {
+		return lines;
+	}
+
+	/**
+	 * Was command killed before it finished?
+	 *
+	 * @return true, if command was killed and output is partial, false
+	 * otherwise
+	 */
+	public boolean isTimedOut() {
+		return timeoutReason != null;
+	}
+
+	public String getTimeoutReason() {
+		return timeoutReason;
+	}
+
+	/**
+	 * Creates new empty output
+	 *
+	 * @return empty output
+	 */
+	public static CommandOutput getEmpty() {
+		return new CommandOutput(new ArrayList<>());
+	}
+}
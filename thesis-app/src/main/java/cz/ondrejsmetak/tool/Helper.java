@@ -11,11 +11,18 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 /**
  * Collection of usefull methods and shortcuts
@@ -24,6 +31,12 @@ import java.util.logging.Logger;
  */
 public class Helper {
 
+	/**
+	 * Maximum time in seconds without any output after command exited, when
+	 * command has no stall timeout
+	 */
+	private static final int EXIT_STALL_TIMEOUT = 10;
+
 	/**
 	 * Adds item to collection, if this item is not null
 	 *
@@ -156,7 +169,44 @@ public class Helper {
 	 * @return output of command
 	 */
 	public static List<String> doCmd(String... args) {
-		List<String> output = new ArrayList<>();
+		return doCmd(0, 0, args).getLines();
+	}
+
+	/**
+	 * Direct command line access with limited run time. Command (and all
+	 * processes started by it) is killed, when it runs longer then given
+	 * timeout or when it doesn't print anything for given stall timeout. In
+	 * such case, output printed so far is returned and marked as timed out.
+	 *
+	 * @param timeout maximum run time in seconds, zero means no limit
+	 * @param stallTimeout maximum time without any output in seconds, zero
+	 * means no limit
+	 * @param args arguments for command line
+	 * @return output of command
+	 */
+	public static CommandOutput doCmd(int timeout, int stallTimeout, String... args) {
+		List<String> lines = Collections.synchronizedList(new ArrayList<>());
+		CommandOutput streamed = doCmd(lines::add, timeout, stallTimeout, args);
+		return new CommandOutput(new ArrayList<>(lines), streamed.getTimeoutReason());
+	}
+
+	/**
+	 * Direct command line access with limited run time, that passes each line
+	 * of output to the given consumer as soon as the line is printed. Lines are
+	 * not kept, so the returned output is always empty and only tells, if the
+	 * command was killed.
+	 *
+	 * @param consumer receiver of lines printed by command
+	 * @param timeout maximum run time in seconds, zero means no limit
+	 * @param stallTimeout maximum time without any output in seconds, zero
+	 * means no limit
+	 * @param args arguments for command line
+	 * @return empty output of command
+	 * @see #doCmd(int, int, java.lang.String...)
+	 */
+	public static CommandOutput doCmd(Consumer<String> consumer, int timeout, int stallTimeout, String... args) {
+		String timeoutReason = null;
+		AtomicLong lastOutput = new AtomicLong(System.nanoTime());
 
 		try {
 			ProcessBuilder ps = new ProcessBuilder(args);
@@ -169,17 +219,113 @@ public class Helper {
 			ps.redirectErrorStream(true);
 
 			Process pr = ps.start();
-			BufferedReader in = new BufferedReader(new InputStreamReader(pr.getInputStream()));
-			String line;
-			while ((line = in.readLine()) != null) {
-				output.add(line);
+			Thread reader = new Thread(() -> {
+				try (BufferedReader in = new BufferedReader(new InputStreamReader(pr.getInputStream()))) {
+					String line;
+					while ((line = in.readLine()) != null) {
+						lastOutput.set(System.nanoTime());
+						consumer.accept(line);
+					}
+				} catch (IOException ex) {
+					//stream is closed, when process is killed
+				}
+			});
+			reader.setDaemon(true);
+			reader.start();
+
+			long started = System.nanoTime();
+			boolean interrupted = false;
+			Set<ProcessHandle> descendants = new HashSet<>();
+			try {
+				while (!pr.waitFor(1, TimeUnit.SECONDS)) {
+					pr.descendants().forEach(descendants::add); //they can't be found, when command exits
+					timeoutReason = getTimeoutReason(started, lastOutput.get(), timeout, stallTimeout);
+					if (timeoutReason != null) {
+						break;
+					}
+				}
+
+				/**
+				 * Process, that was started by command, can keep output open
+				 * after command exited, so output is read with the same limits
+				 */
+				while (timeoutReason == null && reader.isAlive()) {
+					reader.join(TimeUnit.SECONDS.toMillis(1));
+					if (reader.isAlive() && getTimeoutReason(started, lastOutput.get(), timeout, stallTimeout > 0 ? stallTimeout : EXIT_STALL_TIMEOUT) != null) {
+						Log.infoln("Output of " + args[0] + " is still open after it exited, killing processes started by it");
+						descendants.forEach(ProcessHandle::destroyForcibly);
+						reader.join(TimeUnit.SECONDS.toMillis(5));
+						break; //command itself finished, its output is complete
+					}
+				}
+			} catch (InterruptedException ex) {
+				timeoutReason = "interrupted";
+				interrupted = true;
+			}
+
+			if (timeoutReason != null) {
+				destroyProcessTree(pr);
+				descendants.forEach(ProcessHandle::destroyForcibly);
+				reader.join(TimeUnit.SECONDS.toMillis(5));
+			}
+
+			if (interrupted) {
+				Thread.currentThread().interrupt(); //let the caller know
 			}
-			pr.waitFor();
 
-			return output;
-		} catch (InterruptedException | IOException ex) {
+			return new CommandOutput(new ArrayList<>(), timeoutReason);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt(); //let the caller know
+			return new CommandOutput(new ArrayList<>(), "interrupted");
+		} catch (IOException ex) {
 			Log.debugException(ex);
-			return new ArrayList<>();
+			return CommandOutput.getEmpty();
+		}
+	}
+
+	/**
+	 * Checks limits of run time
+	 *
+	 * @param started start of command in nanoseconds
+	 * @param lastOutput time of the last output in nanoseconds
+	 * @param timeout maximum run time in seconds, zero means no limit
+	 * @param stallTimeout maximum time without any output in seconds, zero
+	 * means no limit
+	 * @return reason, why command must be killed, or null, if it can run
+	 */
+	public static String getTimeoutReason(long started, long lastOutput, int timeout, int stallTimeout) {
+		long now = System.nanoTime();
+
+		if (timeout > 0 && now - started >= TimeUnit.SECONDS.toNanos(timeout)) {
+			return String.format("no result in %s seconds", timeout);
+		}
+
+		if (stallTimeout > 0 && now - lastOutput >= TimeUnit.SECONDS.toNanos(stallTimeout)) {
+			return String.format("no output for %s seconds", stallTimeout);
 		}
+
+		return null;
+	}
+
+	/**
+	 * Kills the given process and all processes started by it
+	 *
+	 * @param process process, that will be killed
+	 */
+	public static void destroyProcessTree(Process process) {
+		//descendants must be collected before parent dies, then they are orphaned
+		List<ProcessHandle> descendants = process.descendants().collect(Collectors.toList());
+		process.destroyForcibly();
+		descendants.forEach(ProcessHandle::destroyForcibly);
+	}
+
+	/**
+	 * Kills all processes started by the given process, but not the process
+	 * itself
+	 *
+	 * @param process process, whose descendants will be killed
+	 */
+	public static void destroyDescendants(Process process) {
+		process.descendants().forEach(ProcessHandle::destroyForcibly);
 	}
 }
@@ -0,0 +1,70 @@
+#!/usr/bin/perl
+#
+# Long-lived worker, that runs O-Saft jobs without starting Perl again.
+#
+# Usage: perl o-saft-worker.pl /path/to/o-saft.pl
+#
+# Modules used by O-Saft are loaded once, when worker starts, and worker
+# prints "READY". Then it reads jobs from standard input, one per line:
+#
+#   <token> TAB <arg> TAB <arg> ...
+#
+# Each job is run in a forked child, which already has the modules loaded,
+# so only O-Saft itself is compiled for each job. Output of the job (both
+# standard and error output) is followed by newline and line
+# "<token> <exit code>", so token is on its own line, even if the last line
+# of job isn't terminated. Line with token alone is a health check, it's
+# answered by line "<token> 0".
+# Worker exits, when its standard input is closed.
+#
+# Author: Ondřej Směták <posta@ondrejsmetak.cz>
+
+use strict;
+use warnings;
+
+my $osaft = shift @ARGV or die "Usage: $0 /path/to/o-saft.pl\n";
+(my $folder = $osaft) =~ s#[/\\][^/\\]*$##;
+unshift @INC, $folder, "$folder/lib";
+
+# Modules, that are the most expensive part of O-Saft startup. Missing module
+# isn't an error, O-Saft will report it when the job is run.
+foreach my $module (qw(Socket IO::Socket::INET IO::Socket::SSL Net::SSLeay Net::DNS osaft)) {
+	eval "require $module; 1";
+}
+eval { Net::SSLeay::load_error_strings(); Net::SSLeay::SSLeay_add_ssl_algorithms(); Net::SSLeay::randomize(); };
+
+$| = 1;
+print "READY\n";
+
+while (my $job = <STDIN>) {
+	chomp $job;
+	my ($token, @args) = split /\t/, $job;
+	next if (!defined $token || $token eq "");
+
+	if (!@args) {
+		print "$token 0\n"; # health check
+		next;
+	}
+
+	my $pid = fork();
+	if (!defined $pid) {
+		print "Can't fork worker of O-Saft: $!\n";
+		print "$token 255\n";
+		next;
+	}
+
+	if ($pid == 0) {
+		open(STDERR, ">&", \*STDOUT);
+		open(STDIN, "<", "/dev/null");
+		$0 = $osaft;
+		@ARGV = @args;
+		do $osaft;
+		print STDERR $@ if $@;
+		exit($@ ? 255 : 0);
+	}
+
+	waitpid($pid, 0);
+	print "\n$token " . ($? >> 8) . "\n";
+}
+
+exit 0;
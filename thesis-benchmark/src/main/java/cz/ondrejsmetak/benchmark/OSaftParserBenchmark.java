@@ -0,0 +1,110 @@
+package cz.ondrejsmetak.benchmark;
+
+import cz.ondrejsmetak.ResourceManager;
+import cz.ondrejsmetak.facade.OSaftParser;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures parsing of O-Saft outputs bundled with the application. Each output
+ * can be amplified (repeated several times), which simulates long outputs of
+ * scans with many cipher suites.
+ *
+ * Run with "java -jar target/benchmarks.jar -prof gc" to see also allocation
+ * rate.
+ *
+ * @author Ondřej Směták <posta@ondrejsmetak.cz>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OSaftParserBenchmark {
+
+	/**
+	 * Name of the bundled O-Saft output
+	 */
+	@Param({"example-output-google", "example-output-localhost", "example-output-contact-v6ak"})
+	public String transcript;
+
+	/**
+	 * How many times is the output repeated
+	 */
+	@Param({"1", "10", "100"})
+	public int amplification;
+
+	/**
+	 * Lines, that will be parsed
+	 */
+	private List<String> lines;
+
+	@Setup
+	public void setup() throws IOException {
+		List<String> original = readResource(transcript);
+		lines = new ArrayList<>(original.size() * amplification);
+		for (int i = 0; i < amplification; i++) {
+			lines.addAll(original);
+		}
+	}
+
+	/**
+	 * Reads all lines of the given resource
+	 *
+	 * @param name name of the resource
+	 * @return collection of lines
+	 * @throws IOException in case of any error
+	 */
+	private static List<String> readResource(String name) throws IOException {
+		InputStream source = ResourceManager.getResourceAsStream(name);
+		if (source == null) {
+			throw new IOException("Resource [" + name + "] not found!");
+		}
+
+		List<String> done = new ArrayList<>();
+		try (BufferedReader in = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				done.add(line);
+			}
+		}
+
+		return done;
+	}
+
+	/**
+	 * Passes all lines to a new parser, the same way as O-Saft output is
+	 * streamed during scan
+	 *
+	 * @param blackhole sink for results
+	 */
+	@Benchmark
+	public void parseLines(Blackhole blackhole) {
+		OSaftParser parser = new OSaftParser();
+		for (String line : lines) {
+			parser.parseLine(line);
+		}
+
+		blackhole.consume(parser.getCertificateHostnameMatch());
+		blackhole.consume(parser.getSupportedCipherSuites());
+	}
+}